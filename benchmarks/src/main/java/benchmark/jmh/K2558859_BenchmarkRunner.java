@@ -0,0 +1,54 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// K2558859_BenchmarkRunner - Entry point of benchmarks.jar; runs JMH and always writes the results as JSON
+// Accepts the usual JMH options (e.g. a benchmark regex, -p size=1000, -f 1). Unless -rff is given, results
+// go to results/jmh-<commit>-<timestamp>.json, so runs on different commits can be compared side by side.
+public class K2558859_BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        builder.resultFormat(ResultFormatType.JSON);
+        if (!commandLine.getResult().hasValue()) {
+            File results = new File("results");
+            results.mkdirs();
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            builder.result(new File(results, "jmh-" + currentCommit() + "-" + stamp + ".json").getPath());
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+
+    // Gets the short hash of the checked-out commit, or "local" outside a git work tree
+    private static String currentCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(git.getInputStream()))) {
+                String line = reader.readLine();
+                if (git.waitFor() == 0 && line != null && !line.isBlank()) {
+                    return line.trim();
+                }
+            }
+        } catch (IOException e) {
+            // Fall through to the default name
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "local";
+    }
+}
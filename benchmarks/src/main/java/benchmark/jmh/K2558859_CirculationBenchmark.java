@@ -0,0 +1,109 @@
+package benchmark.jmh;
+
+import command.K2558859_CommandResult;
+import model.borrow.K2558859_BorrowRecord;
+import service.K2558859_LibraryManagementSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.concurrent.TimeUnit;
+
+// K2558859_CirculationBenchmark - Borrow, return, reserve and cancel through the library's command path
+// Each operation is measured together with the one that undoes it, so the library stays in the same state:
+// user i borrows and returns book i, or reserves and cancels book i while user i+1 has it on loan.
+// The returned loan is dropped from the user's and the book's history straight away. Otherwise the user's
+// list would grow by thousands of loans per iteration, and the borrow limit and open-loan lookups, which
+// scan it, would slow down as the iteration went on. The library is rebuilt for each iteration so its
+// global loan list does not grow across the run either.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class K2558859_CirculationBenchmark {
+
+    // Library, IDs and the cursor shared by the two states below
+    abstract static class Books {
+        K2558859_LibraryManagementSystem library;
+        String[] bookIds;
+        String[] userIds;
+        int count;
+        int cursor;
+
+        void build(int count) {
+            this.count = count;
+            library = K2558859_LibraryFixture.create(count);
+            bookIds = new String[count];
+            userIds = new String[count];
+            for (int i = 0; i < count; i++) {
+                bookIds[i] = K2558859_LibraryFixture.bookId(i);
+                userIds[i] = K2558859_LibraryFixture.userId(i);
+            }
+            cursor = 0;
+        }
+
+        int next() {
+            int index = cursor;
+            cursor = index + 1 == count ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    // A library where every book is available
+    @State(Scope.Benchmark)
+    public static class AvailableBooks extends Books {
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            build(size);
+        }
+    }
+
+    // A library where every book is on loan to its own user, so other users can reserve it
+    @State(Scope.Benchmark)
+    public static class LentBooks extends Books {
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            build(size);
+            K2558859_LibraryFixture.lend(library, size);
+        }
+    }
+
+    @Benchmark
+    public void borrowAndReturn(AvailableBooks state, Blackhole blackhole) {
+        int i = state.next();
+        K2558859_CommandResult borrowed = state.library.borrowBook(state.bookIds[i], state.userIds[i]);
+        K2558859_CommandResult returned = state.library.returnBook(state.bookIds[i], state.userIds[i]);
+        K2558859_BorrowRecord loan = returned.getBorrowRecord();
+        if (loan != null) {
+            K2558859_LibraryFixture.forget(loan);
+        }
+        blackhole.consume(borrowed);
+        blackhole.consume(returned);
+    }
+
+    @Benchmark
+    public void reserveAndCancel(LentBooks state, Blackhole blackhole) {
+        int i = state.next();
+        String reserver = state.userIds[i + 1 == state.count ? 0 : i + 1];
+        K2558859_CommandResult reserved = state.library.reserveBook(state.bookIds[i], reserver);
+        K2558859_CommandResult cancelled = state.library.cancelReservation(state.bookIds[i], reserver);
+        blackhole.consume(reserved);
+        blackhole.consume(cancelled);
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark.jmh;
+
+import model.book.K2558859_BasicBook;
+import model.book.K2558859_Book;
+import model.borrow.K2558859_BorrowRecord;
+import model.user.K2558859_User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// K2558859_FineBenchmark - Totals the fines of 1k, 100k and 1M overdue loans
+// Loans are spread over students, faculty and guests so every fine strategy is exercised, and are
+// 1 to 60 days overdue. The score is the time to total all of them once.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class K2558859_FineBenchmark {
+    private static final int BORROWERS = 3_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private K2558859_BorrowRecord[] records;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        today = LocalDate.now();
+        K2558859_Book book = new K2558859_BasicBook("B0", "Title", "Author", "Category", "978-0");
+        K2558859_User[] borrowers = new K2558859_User[BORROWERS];
+        for (int i = 0; i < BORROWERS; i++) {
+            borrowers[i] = K2558859_LibraryFixture.newUser(i);
+        }
+        Random random = new Random(42);
+        records = new K2558859_BorrowRecord[size];
+        for (int i = 0; i < size; i++) {
+            LocalDate dueDate = today.minusDays(1 + random.nextInt(60));
+            records[i] = new K2558859_BorrowRecord("BR" + i, book, borrowers[i % BORROWERS],
+                                                   dueDate.minusDays(14), dueDate);
+        }
+    }
+
+    @Benchmark
+    public double totalFines() {
+        double total = 0;
+        for (K2558859_BorrowRecord record : records) {
+            total += record.calculateFine(record.getUser().getFineStrategy(), today);
+        }
+        return total;
+    }
+}
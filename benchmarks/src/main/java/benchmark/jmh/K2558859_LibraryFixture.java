@@ -0,0 +1,104 @@
+package benchmark.jmh;
+
+import model.book.K2558859_BasicBook;
+import model.book.K2558859_Book;
+import model.book.state.K2558859_BorrowedState;
+import model.borrow.K2558859_BorrowRecord;
+import model.user.K2558859_Faculty;
+import model.user.K2558859_Guest;
+import model.user.K2558859_Student;
+import model.user.K2558859_User;
+import service.K2558859_LibraryManagementSystem;
+import util.NoOpOutputSink;
+import util.Output;
+import java.time.LocalDate;
+import java.util.Random;
+
+// K2558859_LibraryFixture - Builds libraries of a given scale for the JMH benchmarks
+// Book i is "B<i>" and user i is "U<i>"; users rotate through students, faculty and guests. Domain
+// output goes to the no-op sink so console I/O is never part of a measurement.
+final class K2558859_LibraryFixture {
+    private static final int AUTHORS = 1_000;
+    private static final int CATEGORIES = 50;
+
+    // Private constructor to prevent instantiation
+    private K2558859_LibraryFixture() {
+    }
+
+    // Builds a library with the given number of books and users and no loans
+    static K2558859_LibraryManagementSystem create(int size) {
+        Output.setSink(NoOpOutputSink.INSTANCE);
+        K2558859_LibraryManagementSystem library = new K2558859_LibraryManagementSystem();
+        for (int i = 0; i < size; i++) {
+            library.addBook(new K2558859_BasicBook(bookId(i), "Title " + i, "Author " + (i % AUTHORS),
+                                                   "Category " + (i % CATEGORIES), "978-" + i));
+            library.registerUser(newUser(i));
+        }
+        return library;
+    }
+
+    // Lends book i to user i for the first 'loans' books; every other loan is already overdue by 1 to 60 days
+    static void lend(K2558859_LibraryManagementSystem library, int loans) {
+        LocalDate today = LocalDate.now();
+        Random random = new Random(42);
+        for (int i = 0; i < loans; i++) {
+            K2558859_Book book = library.findBookById(bookId(i));
+            K2558859_User user = library.findUserById(userId(i));
+            LocalDate dueDate = i % 2 == 0
+                ? today.minusDays(1 + random.nextInt(60))
+                : today.plusDays(1 + random.nextInt(14));
+            K2558859_BorrowRecord record = new K2558859_BorrowRecord(
+                K2558859_LibraryManagementSystem.nextId("BR"), book, user,
+                dueDate.minusDays(user.getBorrowPeriodInDays()), dueDate);
+            user.addBorrowRecord(record);
+            book.getBorrowHistoryInternal().add(record);
+            library.addBorrowRecord(record);
+            book.setState(K2558859_BorrowedState.INSTANCE);
+        }
+    }
+
+    // Drops a returned loan from its user's and book's history so repeated borrows by the same user
+    // keep those lists at their starting size
+    static void forget(K2558859_BorrowRecord loan) {
+        loan.getUser().removeBorrowRecord(loan);
+        loan.getBook().getBorrowHistoryInternal().remove(loan);
+    }
+
+    static K2558859_User newUser(int i) {
+        String userId = userId(i);
+        String name = "User " + i;
+        String email = "user" + i + "@example.com";
+        switch (i % 3) {
+            case 0:
+                return new K2558859_Student(userId, name, email, "0123456789");
+            case 1:
+                return new K2558859_Faculty(userId, name, email, "0123456789");
+            default:
+                return new K2558859_Guest(userId, name, email, "0123456789");
+        }
+    }
+
+    static String bookId(int i) {
+        return "B" + i;
+    }
+
+    static String userId(int i) {
+        return "U" + i;
+    }
+
+    // Gets the indexes 0..size-1 in a fixed random order, so lookups do not walk memory sequentially
+    static int[] shuffledIndexes(int size) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        Random random = new Random(7);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark.jmh;
+
+import model.book.K2558859_Book;
+import model.user.K2558859_User;
+import service.K2558859_LibraryManagementSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+// K2558859_LookupBenchmark - findBookById and findUserById on libraries of 1k, 100k and 1M books and users
+// IDs are looked up in a fixed random order and in mixed case, as they arrive from the menus and the API.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class K2558859_LookupBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private K2558859_LibraryManagementSystem library;
+    private String[] bookIds;
+    private String[] userIds;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        library = K2558859_LibraryFixture.create(size);
+        int[] order = K2558859_LibraryFixture.shuffledIndexes(size);
+        bookIds = new String[size];
+        userIds = new String[size];
+        for (int i = 0; i < size; i++) {
+            bookIds[i] = K2558859_LibraryFixture.bookId(order[i]).toLowerCase();
+            userIds[i] = K2558859_LibraryFixture.userId(order[i]).toLowerCase();
+        }
+    }
+
+    @Benchmark
+    public K2558859_Book findBookById() {
+        return library.findBookById(bookIds[next()]);
+    }
+
+    @Benchmark
+    public K2558859_User findUserById() {
+        return library.findUserById(userIds[next()]);
+    }
+
+    private int next() {
+        int index = cursor;
+        cursor = index + 1 == size ? 0 : index + 1;
+        return index;
+    }
+}
@@ -0,0 +1,49 @@
+package benchmark.jmh;
+
+import model.report.K2558859_Report;
+import service.K2558859_LibraryManagementSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+// K2558859_ReportBenchmark - Generates each report type over 1k, 100k and 1M books and users
+// One book in ten is on loan and half of those loans are overdue. Each generated report is removed from
+// the archive again so the run does not accumulate report text.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class K2558859_ReportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"Most Borrowed Books", "Active Borrowers", "Overdue Books"})
+    public String reportType;
+
+    private K2558859_LibraryManagementSystem library;
+
+    @Setup
+    public void setUp() {
+        library = K2558859_LibraryFixture.create(size);
+        K2558859_LibraryFixture.lend(library, size / 10);
+    }
+
+    @Benchmark
+    public K2558859_Report generateReport() {
+        K2558859_Report report = library.generateReport(reportType);
+        library.removeReport(report);
+        return report;
+    }
+}
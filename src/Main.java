@@ -1,37 +1,196 @@
 import model.book.*;
 import model.book.decorator.*;
+import model.book.state.K2558859_BookState;
 import model.user.*;
+import model.borrow.K2558859_BorrowRecord;
 import model.report.K2558859_Report;
 import service.K2558859_LibraryManagementSystem;
+import service.K2558859_LibrarySnapshot;
+import service.K2558859_Page;
+import service.api.K2558859_LibraryHttpServer;
+import service.batch.K2558859_BatchRunner;
+import service.reminder.K2558859_DueDateReminderScheduler;
+import service.reservation.K2558859_HoldExpirySweeper;
+import service.notification.K2558859_AsyncNotificationDispatcher;
+import service.notification.K2558859_BackpressurePolicy;
+import service.notification.K2558859_NotificationCoalescer;
 import service.notification.K2558859_NotificationService;
+import service.notification.K2558859_NotificationTopic;
+import service.notification.K2558859_NotificationType;
 import service.notification.K2558859_UserNotificationObserver;
+import service.notification.outbox.K2558859_ConsoleTransport;
+import service.notification.outbox.K2558859_LocalSmtpServer;
+import service.notification.outbox.K2558859_NotificationTransport;
+import service.notification.outbox.K2558859_OutboxDeliveryWorker;
+import service.notification.outbox.K2558859_SmtpTransport;
+import exception.LibraryException;
+import util.AsyncOutputSink;
+import util.NoOpOutputSink;
+import util.Output;
+import util.OutputSink;
 import util.ValidationUtil;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 // Main class - Interactive CLI for the Smart Library Management System
 public class Main {
+    private static final int PAGE_SIZE = 10;
+    private static final Path OUTBOX_FILE = Paths.get("notification-outbox.log");
+    private static final long OUTBOX_SHUTDOWN_MILLIS = 5_000;
+    private static final int BATCH_OUTPUT_BUFFER_BYTES = 1 << 16;
+
     private K2558859_LibraryManagementSystem library;
     private K2558859_NotificationService notificationService;
     private Scanner scanner;
     private int nextBookId = 1;
     private int nextUserId = 1;
     private int nextLibrarianId = 1;
+    private K2558859_LocalSmtpServer localSmtpServer;
 
     public Main() {
         this.library = new K2558859_LibraryManagementSystem();
-        this.notificationService = new K2558859_NotificationService();
+        this.notificationService = library.getNotificationService();
+        this.library.enableDueDateReminders();
+        this.library.enableHoldExpiry();
         this.scanner = new Scanner(System.in);
         this.nextBookId = 1;
         this.nextUserId = 1;
         this.nextLibrarianId = 1;
     }
 
+    // Usage: java Main                      (interactive menus)
+    //        java Main --batch <file | -> [--quiet]   (run a script file or stdin; --quiet drops domain messages)
+    //        java Main --serve [port] [--seed <file>]   (serve the HTTP/JSON API until Enter is pressed,
+    //                                                     after loading the library from a batch script)
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            int port = K2558859_LibraryHttpServer.DEFAULT_PORT;
+            String seed = null;
+            int next = 1;
+            try {
+                if (next < args.length && !args[next].equals("--seed")) {
+                    port = Integer.parseInt(args[next++]);
+                }
+                if (next < args.length) {
+                    if (!args[next].equals("--seed") || next + 2 != args.length) {
+                        throw new IllegalArgumentException();
+                    }
+                    seed = args[next + 1];
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Usage: java Main --serve [port] [--seed <file>]");
+                System.exit(2);
+            }
+            System.exit(runServer(port, seed));
+        }
+        if (args.length > 0 && args[0].equals("--batch")) {
+            boolean quiet = args.length == 3 && args[2].equals("--quiet");
+            if (args.length != 2 && !quiet) {
+                System.err.println("Usage: java Main --batch <file | -> [--quiet]");
+                System.exit(2);
+            }
+            System.exit(runBatch(args[1], quiet));
+        }
         Main app = new Main();
         app.run();
     }
 
+    // Serves the HTTP/JSON API on the port until Enter is pressed or stdin is closed; a seed script (same
+    // format as --batch) is run first so the API starts with books, users and loans
+    private static int runServer(int port, String seed) {
+        K2558859_LibraryManagementSystem library = new K2558859_LibraryManagementSystem();
+        if (seed != null) {
+            // Only errors and the summary are printed while seeding
+            Output.setSink(NoOpOutputSink.INSTANCE);
+            K2558859_BatchRunner runner = new K2558859_BatchRunner(library, System.out);
+            try (BufferedReader script = Files.newBufferedReader(Paths.get(seed), StandardCharsets.UTF_8)) {
+                runner.run(script);
+            } catch (IOException e) {
+                System.err.println("Error: Cannot read seed script " + seed + ": " + e.getMessage());
+                return 1;
+            }
+            System.out.printf("Seeded the library from %s: %,d commands, %,d declined, %,d rejected.%n",
+                              seed, runner.getExecutedCount(), runner.getDeclinedCount(), runner.getRejectedCount());
+        }
+        // Request threads only enqueue their domain messages; one writer thread prints them
+        Output.setSink(new AsyncOutputSink(OutputSink.Level.INFO));
+        library.enableDueDateReminders();
+        library.enableHoldExpiry();
+        K2558859_LibraryHttpServer server = new K2558859_LibraryHttpServer(library);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            Output.getSink().close();
+            System.err.println("Error: Cannot start the HTTP server on port " + port + ": " + e.getMessage());
+            return 1;
+        }
+        System.out.println("Library API listening on http://localhost:" + server.getPort() + "/api/ (" +
+                           (server.isUsingVirtualThreads() ? "virtual threads" : "thread pool") +
+                           "). Press Enter to stop.");
+        try {
+            if (System.in.read() < 0) {
+                // No console (stdin closed): serve until the process is stopped
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+                new CountDownLatch(1).await();
+            }
+        } catch (IOException e) {
+            // Treat an unreadable stdin like Enter
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.stop(1);
+        library.disableHoldExpiry();
+        library.disableDueDateReminders();
+        Output.getSink().close();
+        System.out.println("Served " + server.getRequestCount() + " requests.");
+        return 0;
+    }
+
+    // Runs a command script with buffered output and prints a throughput/latency summary at the end
+    private static int runBatch(String source, boolean quiet) {
+        PrintStream console = System.out;
+        if (quiet) {
+            Output.setSink(NoOpOutputSink.INSTANCE);
+        }
+        PrintStream buffered = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out),
+                                                                        BATCH_OUTPUT_BUFFER_BYTES), false);
+        K2558859_LibraryManagementSystem library = new K2558859_LibraryManagementSystem();
+        K2558859_BatchRunner runner = new K2558859_BatchRunner(library, buffered);
+        System.setOut(buffered);
+        try (BufferedReader script = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            runner.run(script);
+        } catch (IOException e) {
+            buffered.flush();
+            System.setOut(console);
+            System.err.println("Error: Cannot read batch script " + source + ": " + e.getMessage());
+            return 1;
+        }
+        buffered.flush();
+        System.setOut(console);
+        runner.printSummary(console);
+        return runner.getRejectedCount() == 0 ? 0 : 1;
+    }
+
     // Main CLI loop - displays menu and processes user choices
     public void run() {
         printWelcomeBanner();
@@ -74,6 +233,14 @@ public class Main {
             }
         }
         
+        notificationService.disableAsyncDelivery();
+        library.disableDueDateReminders();
+        library.disableHoldExpiry();
+        notificationService.disableCoalescing();
+        notificationService.disableOutbox(OUTBOX_SHUTDOWN_MILLIS);
+        if (localSmtpServer != null) {
+            localSmtpServer.stop();
+        }
         scanner.close();
     }
 
@@ -88,6 +255,10 @@ public class Main {
             System.out.println("4. Update Book");
             System.out.println("5. Remove Book");
             System.out.println("6. View All Books");
+            System.out.println("7. Add Copies of a Book");
+            System.out.println("8. View Titles and Availability");
+            System.out.println("9. View Front Page (Featured / Recommended / Special Edition)");
+            System.out.println("10. Search Books by Tag");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("\nEnter your choice: ");
@@ -111,10 +282,22 @@ public class Main {
                 case 6:
                     viewAllBooks();
                     break;
+                case 7:
+                    addCopies();
+                    break;
+                case 8:
+                    viewTitles();
+                    break;
+                case 9:
+                    viewFrontPage();
+                    break;
+                case 10:
+                    searchBooksByTag();
+                    break;
                 case 0:
                     return;
                 default:
-                    System.out.println("\nInvalid choice. Please enter a number between 0 and 6.");
+                    System.out.println("\nInvalid choice. Please enter a number between 0 and 10.");
             }
         }
     }
@@ -132,6 +315,117 @@ public class Main {
         library.addBook(book);
     }
 
+    // Adds physical copies that share an existing book's title, author, ISBN and metadata
+    private void addCopies() {
+        if (library.getBooks().isEmpty()) {
+            System.out.println("\nNo books available. Add a book first.");
+            return;
+        }
+        
+        printSubHeader("Add Copies");
+        viewAllBooks();
+        
+        String bookId = getStringInput("\nEnter Book ID to copy: ").trim();
+        K2558859_Book original = findBookById(bookId);
+        if (original == null) {
+            System.out.println("\nError: Book with ID " + bookId + " not found.");
+            return;
+        }
+        int count = getIntInput("Number of copies to add: ");
+        if (count < 1) {
+            System.out.println("\nNo copies added.");
+            return;
+        }
+        
+        try {
+            for (int i = 0; i < count; i++) {
+                library.addCopy(original.getBookId(), generateId("B"));
+            }
+        } catch (LibraryException e) {
+            System.out.println("\nError: " + e.getMessage());
+            return;
+        }
+        System.out.println("\n" + count + " cop" + (count == 1 ? "y" : "ies") + " of '" + original.getTitle() +
+                         "' added. Total copies: " + original.getTitleRecord().getCopyCount());
+    }
+
+    // Lists each distinct title with its per-state copy counts
+    private void viewTitles() {
+        printSubHeader("Titles and Availability");
+        
+        List<K2558859_Title> titles = library.getTitles();
+        if (titles.isEmpty()) {
+            System.out.println("No titles in the system.");
+            return;
+        }
+        
+        System.out.printf("%-30s %-15s %-8s %-10s %-10s %-10s %-8s\n",
+            "Title", "ISBN", "Copies", "Available", "Borrowed", "Reserved", "On Hold");
+        System.out.println("-".repeat(97));
+        for (K2558859_Title title : titles) {
+            System.out.printf("%-30s %-15s %-8d %-10d %-10d %-10d %-8d\n",
+                truncate(title.getTitle(), 30),
+                truncate(title.getIsbn(), 15),
+                title.getCopyCount(),
+                title.getAvailableCount(),
+                title.getBorrowedCount(),
+                title.getReservedCount(),
+                title.getOnHoldCount());
+        }
+    }
+
+    // Lists the featured, recommended and special-edition books from the library's decoration index
+    private void viewFrontPage() {
+        printSubHeader("Front Page");
+        
+        for (K2558859_BookDecoration decoration : K2558859_BookDecoration.values()) {
+            List<K2558859_Book> listed = library.getDecoratedBooks(decoration);
+            System.out.println("\n" + decoration.getDisplayName() + " (" + listed.size() + ")");
+            if (listed.isEmpty()) {
+                System.out.println("  None");
+                continue;
+            }
+            for (K2558859_Book book : listed) {
+                System.out.printf("  %-10s %-30s %-20s %-15s\n",
+                    book.getBookId(),
+                    truncate(book.getTitle(), 30),
+                    truncate(book.getAuthor(), 20),
+                    book.getAvailabilityStatus().getStateName());
+            }
+        }
+    }
+
+    // Looks books up through the library's tag index
+    private void searchBooksByTag() {
+        printSubHeader("Search Books by Tag");
+        
+        Map<String, Integer> tagCounts = library.getTagCounts();
+        if (tagCounts.isEmpty()) {
+            System.out.println("No tagged books in the system.");
+            return;
+        }
+        
+        System.out.println("Tags in use:");
+        tagCounts.forEach((tag, count) -> System.out.println("  " + tag + " (" + count + ")"));
+        
+        String tag = getStringInput("\nEnter tag: ");
+        List<K2558859_Book> tagged = library.findBooksByTag(tag);
+        if (tagged.isEmpty()) {
+            System.out.println("\nNo books tagged '" + tag.trim() + "'.");
+            return;
+        }
+        
+        System.out.printf("\n%-10s %-30s %-20s %-15s\n", "Book ID", "Title", "Author", "Status");
+        System.out.println("-".repeat(78));
+        for (K2558859_Book book : tagged) {
+            System.out.printf("%-10s %-30s %-20s %-15s\n",
+                book.getBookId(),
+                truncate(book.getTitle(), 30),
+                truncate(book.getAuthor(), 20),
+                book.getAvailabilityStatus().getStateName());
+        }
+    }
+
     // Builder Pattern implementation
     private void addBookWithBuilder() {
         printSubHeader("Add Book with Metadata");
@@ -203,8 +497,11 @@ public class Main {
         System.out.println("2. Recommended");
         System.out.println("3. Special Edition");
         System.out.println("4. All Decorations (Featured + Recommended + Special Edition)");
+        System.out.println("5. Remove All Decorations");
         
         int choice = getIntInput("Choice: ");
+        // Decorations are flags on the copy itself, so capture its description before they change
+        String originalDescription = baseBook.getDescription();
         K2558859_Book decoratedBook = baseBook;
         
         switch (choice) {
@@ -222,11 +519,19 @@ public class Main {
                     new K2558859_RecommendedDecorator(
                         new K2558859_FeaturedDecorator(baseBook)));
                 break;
+            case 5:
+                baseBook.clearDecorations();
+                System.out.println("\nDecorations removed.");
+                System.out.println(baseBook.getDescription());
+                return;
+            default:
+                System.out.println("\nInvalid choice.");
+                return;
         }
         
         System.out.println("\nBook decorated successfully!");
         System.out.println("\nOriginal Book:");
-        System.out.println(baseBook.getDescription());
+        System.out.println(originalDescription);
         System.out.println("\nDecorated Book:");
         System.out.println(decoratedBook.getDescription());
     }
@@ -249,6 +554,9 @@ public class Main {
             return;
         }
         
+        // Remember which version was shown, so a concurrent edit is not silently overwritten
+        long version = existingBook.getVersion();
+        String oldTitle = existingBook.getTitle();
         System.out.println("\nCurrent Book Details:");
         System.out.println("Title: " + existingBook.getTitle());
         System.out.println("Author: " + existingBook.getAuthor());
@@ -279,7 +587,15 @@ public class Main {
         String confirmation = scanner.nextLine().trim();
         
         if (confirmation.equalsIgnoreCase("yes")) {
-            library.updateBook(bookId, newTitle, newAuthor, newCategory, newIsbn);
+            try {
+                library.updateBook(existingBook.getBookId(), version, newTitle, newAuthor, newCategory, newIsbn);
+            } catch (LibraryException e) {
+                System.out.println("\nError: " + e.getMessage());
+                return;
+            }
+            System.out.println("\nBook updated successfully!");
+            System.out.println("Previous: '" + oldTitle + "'");
+            System.out.println("Updated:  '" + newTitle + "'");
         } else {
             System.out.println("\nUpdate cancelled.");
         }
@@ -327,7 +643,7 @@ public class Main {
         System.out.printf("%-10s %-30s %-20s %-15s %-20s %-15s\n", "Book ID", "Title", "Author", "Status", "Category", "ISBN");
         System.out.println("-".repeat(120));
         
-        for (K2558859_Book book : library.getBooks()) {
+        printPaged(pageNumber -> library.getBooksPage(pageNumber, PAGE_SIZE), book -> {
             System.out.printf("%-10s %-30s %-20s %-15s %-20s %-15s\n",
                 book.getBookId(),
                 truncate(book.getTitle(), 30),
@@ -343,7 +659,7 @@ public class Main {
                     System.out.println("    • " + meta);
                 }
             }
-        }
+        });
     }
 
     // ------- USER MANAGEMENT --------
@@ -439,8 +755,9 @@ public class Main {
             // Ask if user wants to register for notifications
             System.out.print("\nRegister for notifications? (y/n): ");
             if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
-                K2558859_UserNotificationObserver observer = new K2558859_UserNotificationObserver(user);
-                notificationService.registerObserver(observer);
+                // Subscribe to the user's own topic so unrelated events never reach this observer
+                K2558859_UserNotificationObserver observer = new K2558859_UserNotificationObserver(user, notificationService);
+                notificationService.subscribe(K2558859_NotificationTopic.forUser(user.getUserId()), observer);
                 System.out.println("User registered as observer!");
             }
         }
@@ -488,13 +805,12 @@ public class Main {
         System.out.printf("%-10s %-25s %-15s %-15s\n", "User ID", "Name", "Type", "Active Borrows");
         System.out.println("-".repeat(70));
         
-        for (K2558859_User user : library.getUsers()) {
+        printPaged(pageNumber -> library.getUsersPage(pageNumber, PAGE_SIZE), user ->
             System.out.printf("%-10s %-25s %-15s %-15d\n",
                 user.getUserId(),
                 truncate(user.getName(), 25),
-                util.ValidationUtil.removeClassPrefix(user.getClass().getSimpleName()),
-                user.getActiveBorrowCount());
-        }
+                user.getMembershipType(),
+                user.getActiveBorrowCount()));
     }
 
     // ------ BORROWING OPERATIONS -------- (Command Pattern)
@@ -505,6 +821,10 @@ public class Main {
             System.out.println("1. Borrow Book");
             System.out.println("2. Return Book");
             System.out.println("3. View Borrow Records");
+            System.out.println("4. Batch Borrow Books");
+            System.out.println("5. Batch Return Books");
+            System.out.println("6. Undo Last Operation");
+            System.out.println("7. Redo Last Undone Operation");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("\nEnter your choice: ");
@@ -519,10 +839,22 @@ public class Main {
             case 3:
                 viewBorrowRecords();
                 break;
+            case 4:
+                batchBorrowBooks();
+                break;
+            case 5:
+                batchReturnBooks();
+                break;
+            case 6:
+                library.undoLastCommand();
+                break;
+            case 7:
+                library.redoLastCommand();
+                break;
                 case 0:
                     return; // Exit to Main Menu
                 default:
-                    System.out.println("\nInvalid choice. Please enter a number between 0 and 3.");
+                    System.out.println("\nInvalid choice. Please enter a number between 0 and 7.");
             }
         }
     }
@@ -594,6 +926,36 @@ public class Main {
         library.returnBook(bookToReturn.getBookId(), userReturning.getUserId());
     }
 
+    // Borrows several books for one user in a single transaction
+    private void batchBorrowBooks() {
+        printSubHeader("Batch Borrow Books");
+        
+        if (library.getBooks().isEmpty() || library.getUsers().isEmpty()) {
+            System.out.println("\nBooks and registered users are required to borrow books.");
+            return;
+        }
+        
+        viewAllBooks();
+        String userId = getStringInput("\nEnter User ID: ").trim();
+        List<String> bookIds = getIdListInput("Enter Book IDs (comma separated): ");
+        library.borrowBooks(bookIds, userId);
+    }
+
+    // Returns several books for one user in a single transaction
+    private void batchReturnBooks() {
+        printSubHeader("Batch Return Books");
+        
+        if (library.getBorrowRecords().isEmpty()) {
+            System.out.println("\nNo borrow records found.");
+            return;
+        }
+        
+        viewBorrowRecords();
+        String userId = getStringInput("\nEnter User ID: ").trim();
+        List<String> bookIds = getIdListInput("Enter Book IDs (comma separated): ");
+        library.returnBooks(bookIds, userId);
+    }
+
     private void viewBorrowRecords() {
         printSubHeader("Borrow Records");
         
@@ -606,9 +968,10 @@ public class Main {
             "Record ID", "Book", "User", "Due Date", "Status");
         System.out.println("-".repeat(90));
         
-        for (var record : library.getBorrowRecords()) {
+        java.time.LocalDate today = java.time.LocalDate.now();
+        printPaged(pageNumber -> library.getBorrowRecordsPage(pageNumber, PAGE_SIZE), record -> {
             String status = record.getReturnDate() != null ? "Returned" : 
-                           (record.isOverdue(java.time.LocalDate.now()) ? "OVERDUE" : "Active");
+                           (record.isOverdue(today) ? "OVERDUE" : "Active");
             
             System.out.printf("%-15s %-25s %-20s %-12s %-12s\n",
                 truncate(record.getRecordId(), 15),
@@ -616,7 +979,7 @@ public class Main {
                 truncate(record.getUser().getName(), 20),
                 record.getDueDate().toString(),
                 status);
-        }
+        });
     }
 
     // ------ RESERVATION MENU -------- (State Pattern)
@@ -627,6 +990,9 @@ public class Main {
             System.out.println("1. Reserve Book");
             System.out.println("2. View Reservations");
             System.out.println("3. Cancel Reservation");
+            System.out.println("4. View Queue Position");
+            System.out.println("5. Set Hold Window");
+            System.out.println("6. Expire Unclaimed Holds Now");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("\nEnter your choice: ");
@@ -641,10 +1007,19 @@ public class Main {
             case 3:
                 cancelReservation();
                 break;
+            case 4:
+                viewQueuePosition();
+                break;
+            case 5:
+                setHoldWindow();
+                break;
+            case 6:
+                expireHoldsNow();
+                break;
                 case 0:
                     return; // Exit to Main Menu
                 default:
-                    System.out.println("\nInvalid choice. Please enter a number between 0 and 3.");
+                    System.out.println("\nInvalid choice. Please enter a number between 0 and 6.");
             }
         }
     }
@@ -694,17 +1069,80 @@ public class Main {
             return;
         }
         
-        System.out.printf("%-15s %-30s %-25s %-15s\n", 
-            "Reservation ID", "Book", "User", "Date");
-        System.out.println("-".repeat(90));
+        System.out.printf("%-17s %-30s %-25s %-15s %-8s\n", 
+            "Reservation ID", "Book", "User", "Date", "Queue");
+        System.out.println("-".repeat(101));
         
-        for (var reservation : library.getReservations()) {
-            System.out.printf("%-15s %-30s %-25s %-15s\n",
-                truncate(reservation.getReservationId(), 15),
+        printPaged(pageNumber -> library.getReservationsPage(pageNumber, PAGE_SIZE), reservation -> {
+            int position = reservation.getBook().getReservationQueue().getPosition(reservation.getUser().getUserId());
+            System.out.printf("%-17s %-30s %-25s %-15s %-8s\n",
+                truncate(reservation.getReservationId(), 17),
                 truncate(reservation.getBook().getTitle(), 30),
                 truncate(reservation.getUser().getName(), 25),
-                reservation.getReservationDate().toString());
+                reservation.getReservationDate().toString(),
+                position == 0 ? "On hold" : "#" + position);
+        });
+    }
+
+    // Shows where a patron stands in a book's reservation queue
+    private void viewQueuePosition() {
+        printSubHeader("Queue Position");
+        
+        String bookId = getStringInput("\nEnter Book ID: ").trim();
+        String userId = getStringInput("Enter User ID: ").trim();
+        
+        K2558859_Book book = findBookById(bookId);
+        K2558859_User user = findUserById(userId);
+        if (book == null || user == null) {
+            System.out.println("\nError: Book or user not found.");
+            return;
+        }
+        
+        int position;
+        try {
+            position = library.getReservationPosition(book.getBookId(), user.getUserId());
+        } catch (LibraryException e) {
+            System.out.println("\nError: " + e.getMessage());
+            return;
+        }
+        int waiting = book.getReservationQueue().size();
+        if (position < 0) {
+            System.out.println("\n" + user.getName() + " is not waiting for '" + book.getTitle() + "' (" +
+                             waiting + " patron(s) in queue).");
+        } else if (position == 0) {
+            System.out.println("\n'" + book.getTitle() + "' is on hold for " + user.getName() + ". Ready for pickup until " +
+                             book.getReservationQueue().getHolder().getHoldExpiresAt().toLocalDate() + ".");
+        } else {
+            System.out.println("\n" + user.getName() + " is number " + position + " of " + waiting +
+                             " in the queue for '" + book.getTitle() + "'.");
+        }
+    }
+
+    // Changes how long returned books wait on the hold shelf for the next patron
+    private void setHoldWindow() {
+        System.out.println("\nCurrent hold window: " + library.getHoldWindow().toHours() + " hour(s)");
+        int hours = getIntInput("New hold window in hours: ");
+        if (hours < 1) {
+            System.out.println("\nThe hold window must be at least one hour.");
+            return;
         }
+        library.setHoldWindow(Duration.ofHours(hours));
+        System.out.println("\nHold window set to " + hours + " hour(s). It applies to holds placed from now on.");
+    }
+
+    // Runs the hold expiry sweep immediately instead of waiting for the next background run
+    private void expireHoldsNow() {
+        K2558859_HoldExpirySweeper sweeper = library.getHoldExpirySweeper();
+        if (sweeper == null) {
+            System.out.println("\nHold expiry is disabled.");
+            return;
+        }
+        
+        int expired = sweeper.sweep(System.currentTimeMillis());
+        printSubHeader("Hold Expiry");
+        System.out.println("Expired Now: " + expired);
+        System.out.println("Active Holds: " + sweeper.getTrackedHoldCount());
+        System.out.println("Expired in Total: " + sweeper.getExpiredCount());
     }
 
     private void cancelReservation() {
@@ -744,6 +1182,11 @@ public class Main {
             System.out.println("1. Send Test Notification");
             System.out.println("2. Send Due Date Reminder");
             System.out.println("3. View Observer Count");
+            System.out.println("4. Toggle Asynchronous Delivery");
+            System.out.println("5. View Delivery Statistics");
+            System.out.println("6. Toggle Notification Digests");
+            System.out.println("7. View Scheduled Reminders");
+            System.out.println("8. Toggle Persistent Outbox");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("\nEnter your choice: ");
@@ -756,8 +1199,22 @@ public class Main {
                     sendDueDateReminder();
                     break;
                 case 3:
-                    System.out.println("\nObserver notification feature - Count not available");
-                    // System.out.println("\nRegistered Observers: " + notificationService.getObserverCount());
+                    System.out.println("\nRegistered Observers: " + notificationService.getObserverCount());
+                    break;
+                case 4:
+                    toggleAsyncDelivery();
+                    break;
+                case 5:
+                    viewDeliveryStatistics();
+                    break;
+                case 6:
+                    toggleDigests();
+                    break;
+                case 7:
+                    viewScheduledReminders();
+                    break;
+                case 8:
+                    toggleOutbox();
                     break;
                 case 0:
                     return; // Exit the menu
@@ -779,8 +1236,7 @@ public class Main {
         
         if (book != null) {
             String message = getStringInput("Enter notification message: ");
-            notificationService.notifyObservers(book, message);
-            // notificationService.sendBookNotification(book, message);
+            notificationService.notifyAllSubscribers(book, message);
         }
     }
 
@@ -795,18 +1251,19 @@ public class Main {
         K2558859_Book book = findBookById(bookId);
         
         if (book != null) {
-            // Check if the book is borrowed
-            if (!book.getAvailabilityStatus().getStateName().equals("Borrowed")) {
+            // Check if the book is on loan (a reserved book is still borrowed)
+            byte state = book.getAvailabilityStatus().getStateCode();
+            if (state != K2558859_BookState.BORROWED && state != K2558859_BookState.RESERVED) {
                 System.out.println("\nError: Book '" + book.getTitle() + "' is not currently borrowed.");
                 return;
             }
             
-            // Find the user who borrowed this book
+            // The borrower is on the book's most recent open loan
             K2558859_User borrower = null;
-            for (var record : library.getBorrowRecords()) {
-                if (record.getBook().getBookId().equals(book.getBookId()) && 
-                    record.getReturnDate() == null) {
-                    borrower = record.getUser();
+            List<K2558859_BorrowRecord> history = book.getBorrowHistoryInternal();
+            for (int i = history.size() - 1; i >= 0; i--) {
+                if (history.get(i).getReturnDate() == null) {
+                    borrower = history.get(i).getUser();
                     break;
                 }
             }
@@ -817,11 +1274,146 @@ public class Main {
             }
             
             int days = getIntInput("Days until due: ");
-            String message = "Book '" + book.getTitle() + "' is due in " + days + " days";
+            String message = "Your borrowed book is due in " + days + " days";
             
-            // Send notification only to the borrower
-            System.out.println("Notification to " + borrower.getName() + " (" + borrower.getEmail() + "): " + message);
+            // Send notification only to the borrower's topic
+            if (notificationService.getSubscriberCount(K2558859_NotificationTopic.forUser(borrower.getUserId())) == 0) {
+                System.out.println("\n" + borrower.getName() + " has not registered for notifications.");
+                return;
+            }
+            notificationService.notifyUser(borrower, book, K2558859_NotificationType.DUE_DATE_REMINDER, message);
+        }
+    }
+
+    // Switches notification delivery between the caller's thread and the async dispatcher
+    private void toggleAsyncDelivery() {
+        if (notificationService.getDispatcher() != null) {
+            notificationService.disableAsyncDelivery();
+            System.out.println("\nAsynchronous delivery disabled. Notifications are delivered immediately.");
+            return;
+        }
+        
+        System.out.println("\nWhen the queue is full:");
+        System.out.println("1. Wait for space (BLOCK)");
+        System.out.println("2. Drop the new notification (DROP_NEWEST)");
+        System.out.println("3. Drop the oldest notification (DROP_OLDEST)");
+        System.out.println("4. Deliver on the desk thread (CALLER_RUNS)");
+        int choice = getIntInput("Choice: ");
+        if (choice < 1 || choice > 4) {
+            System.out.println("\nInvalid choice. Asynchronous delivery not enabled.");
+            return;
         }
+        K2558859_BackpressurePolicy policy = K2558859_BackpressurePolicy.values()[choice - 1];
+        notificationService.enableAsyncDelivery(policy);
+        System.out.println("\nAsynchronous delivery enabled (" + policy + ").");
+    }
+
+    // Shows the automatic due-date reminders waiting on the timing wheel
+    private void viewScheduledReminders() {
+        K2558859_DueDateReminderScheduler scheduler = library.getReminderScheduler();
+        if (scheduler == null) {
+            System.out.println("\nAutomatic due-date reminders are disabled.");
+            return;
+        }
+        
+        printSubHeader("Scheduled Reminders");
+        System.out.println("Loans with Reminders: " + scheduler.getScheduledLoanCount());
+        System.out.println("Pending Reminders: " + scheduler.getPendingReminderCount());
+        System.out.println("Reminders Sent: " + scheduler.getSentCount());
+    }
+
+    // Switches between printing notifications and delivering them from the persistent outbox
+    private void toggleOutbox() {
+        if (notificationService.getOutboxWorker() != null) {
+            notificationService.disableOutbox(OUTBOX_SHUTDOWN_MILLIS);
+            if (localSmtpServer != null) {
+                localSmtpServer.stop();
+                localSmtpServer = null;
+            }
+            System.out.println("\nPersistent outbox disabled. Undelivered messages stay in " + OUTBOX_FILE + ".");
+            return;
+        }
+        
+        System.out.println("\nDeliver outbox messages through:");
+        System.out.println("1. Console");
+        System.out.println("2. Local SMTP server");
+        int choice = getIntInput("Choice: ");
+        
+        try {
+            K2558859_NotificationTransport transport;
+            if (choice == 1) {
+                transport = new K2558859_ConsoleTransport();
+            } else if (choice == 2) {
+                localSmtpServer = new K2558859_LocalSmtpServer();
+                localSmtpServer.start();
+                transport = new K2558859_SmtpTransport("localhost", localSmtpServer.getPort(), "library@library.local");
+            } else {
+                System.out.println("\nInvalid choice. Outbox not enabled.");
+                return;
+            }
+            notificationService.enableOutbox(OUTBOX_FILE, transport);
+            System.out.println("\nPersistent outbox enabled (" + transport.getName() + "). Messages are logged to " +
+                             OUTBOX_FILE + ".");
+        } catch (IOException e) {
+            System.out.println("\nError: Could not enable the outbox: " + e.getMessage());
+        }
+    }
+
+    // Switches per-patron digests on or off
+    private void toggleDigests() {
+        if (notificationService.getCoalescer() != null) {
+            notificationService.disableCoalescing();
+            System.out.println("\nNotification digests disabled. Pending digests have been sent.");
+            return;
+        }
+        
+        int minutes = getIntInput("Digest window in minutes (1440 for a daily digest): ");
+        if (minutes < 1) {
+            System.out.println("\nThe window must be at least one minute. Digests not enabled.");
+            return;
+        }
+        notificationService.enableCoalescing(minutes * 60_000L);
+        System.out.println("\nNotification digests enabled. Messages to each patron are merged every " +
+                         minutes + " minute(s).");
+    }
+
+    private void viewDeliveryStatistics() {
+        K2558859_NotificationCoalescer coalescer = notificationService.getCoalescer();
+        if (coalescer != null) {
+            printSubHeader("Digest Statistics");
+            System.out.println("Messages Received: " + coalescer.getReceivedCount());
+            System.out.println("Digests Sent: " + coalescer.getSentCount());
+            System.out.println("Pending Messages: " + coalescer.getPendingMessageCount() +
+                             " for " + coalescer.getPendingRecipientCount() + " patron(s)");
+            System.out.printf("Messages per Digest: %.1f\n", coalescer.getCoalescingRatio());
+        }
+        
+        K2558859_OutboxDeliveryWorker outboxWorker = notificationService.getOutboxWorker();
+        if (outboxWorker != null) {
+            printSubHeader("Outbox Statistics (" + outboxWorker.getTransport().getName() + ")");
+            System.out.println("Enqueued: " + outboxWorker.getEnqueuedCount());
+            System.out.println("Delivered: " + outboxWorker.getDeliveredCount());
+            System.out.println("Retries: " + outboxWorker.getRetriedCount());
+            System.out.println("Dead Letters: " + outboxWorker.getDeadCount());
+            System.out.println("Pending: " + outboxWorker.getOutbox().getPendingCount());
+            System.out.printf("Throughput: %.0f messages/min\n", outboxWorker.getDeliveredPerMinute());
+        }
+        
+        K2558859_AsyncNotificationDispatcher dispatcher = notificationService.getDispatcher();
+        if (dispatcher == null) {
+            System.out.println("\nAsynchronous delivery is disabled.");
+            return;
+        }
+        
+        printSubHeader("Delivery Statistics");
+        System.out.println("Queue Depth: " + dispatcher.getQueueDepth() + " / " + dispatcher.getQueueCapacity());
+        System.out.println("Submitted: " + dispatcher.getSubmittedCount());
+        System.out.println("Delivered: " + dispatcher.getDeliveredCount());
+        System.out.println("Dropped: " + dispatcher.getDroppedCount());
+        System.out.println("Failed: " + dispatcher.getFailedCount());
+        System.out.printf("Average Batch Size: %.1f\n", dispatcher.getAverageBatchSize());
+        System.out.printf("Average Latency: %.3f ms\n", dispatcher.getAverageLatencyMillis());
+        System.out.printf("Max Latency: %.3f ms\n", dispatcher.getMaxLatencyMillis());
     }
 
     // ------ REPORT MENU -------- (Strategy Pattern for fine calculation)
@@ -868,12 +1460,19 @@ public class Main {
     private void viewAllData() {
         printSectionHeader("SYSTEM DATA OVERVIEW");
         
-        System.out.println("Total Books: " + library.getBooks().size());
-        System.out.println("Total Users: " + library.getUsers().size());
-        System.out.println("Total Borrow Records: " + library.getBorrowRecords().size());
-        System.out.println("Total Reservations: " + library.getReservations().size());
-        // System.out.println("Registered Observers: " + notificationService.getObserverCount());
-        System.out.println("Total Reports: " + library.getReports().size());
+        // Read every count from the same point-in-time snapshot
+        K2558859_LibrarySnapshot snapshot = library.snapshot();
+        System.out.println("Total Books: " + snapshot.getBooks().size());
+        int[] stateCounts = library.getBookStateCounts();
+        System.out.println("  Available: " + stateCounts[K2558859_BookState.AVAILABLE] +
+                         ", Borrowed: " + stateCounts[K2558859_BookState.BORROWED] +
+                         ", Reserved: " + stateCounts[K2558859_BookState.RESERVED] +
+                         ", On Hold: " + stateCounts[K2558859_BookState.ON_HOLD]);
+        System.out.println("Total Users: " + snapshot.getUsers().size());
+        System.out.println("Total Borrow Records: " + snapshot.getBorrowRecords().size());
+        System.out.println("Total Reservations: " + snapshot.getReservations().size());
+        System.out.println("Registered Observers: " + notificationService.getObserverCount());
+        System.out.println("Total Reports: " + snapshot.getReports().size());
     }
 
     // ------- HELPER METHODS -------
@@ -909,6 +1508,26 @@ public class Main {
         System.out.println("-".repeat(80));
     }
 
+    // Prints a listing one page at a time; Enter shows the next page and 'q' stops the listing
+    private <T> void printPaged(IntFunction<K2558859_Page<T>> pageLoader, Consumer<T> rowPrinter) {
+        int pageNumber = 0;
+        while (true) {
+            K2558859_Page<T> page = pageLoader.apply(pageNumber);
+            for (T item : page.getItems()) {
+                rowPrinter.accept(item);
+            }
+            if (!page.hasNext()) {
+                return;
+            }
+            System.out.print("-- Page " + (pageNumber + 1) + " of " + page.getTotalPages() +
+                             " -- Press Enter for more, 'q' to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            pageNumber++;
+        }
+    }
+
     private String getStringInput(String prompt) {
         while (true) {
             System.out.print(prompt);
@@ -931,18 +1550,28 @@ public class Main {
         }
     }
 
+    // Reads a comma separated list of IDs, ignoring blanks
+    private List<String> getIdListInput(String prompt) {
+        while (true) {
+            List<String> ids = new ArrayList<>();
+            for (String id : getStringInput(prompt).split(",")) {
+                if (!id.trim().isEmpty()) {
+                    ids.add(id.trim());
+                }
+            }
+            if (!ids.isEmpty()) {
+                return ids;
+            }
+            System.out.println("Please enter at least one ID.");
+        }
+    }
+
     private K2558859_Book findBookById(String bookId) {
-        return library.getBooks().stream()
-            .filter(book -> book.getBookId().equalsIgnoreCase(bookId))
-            .findFirst()
-            .orElse(null);
+        return library.findBookById(bookId);
     }
     
     private K2558859_User findUserById(String userId) {
-        return library.getUsers().stream()
-            .filter(user -> user.getUserId().equalsIgnoreCase(userId))
-            .findFirst()
-            .orElse(null);
+        return library.findUserById(userId);
     }
 
     private String truncate(String str, int length) {
@@ -0,0 +1,126 @@
+package benchmark;
+
+import model.book.K2558859_BasicBook;
+import model.book.K2558859_Book;
+import model.book.K2558859_Title;
+import util.StringDictionary;
+import java.util.ArrayList;
+import java.util.List;
+
+// K2558859_CatalogFootprintBenchmark - Measures the heap used by author and category strings in a large catalogue
+// Usage: java benchmark.K2558859_CatalogFootprintBenchmark [books] [authors] [categories]
+// Every author and category string is built freshly per book, as it would be when read from a file.
+// The same catalogue is held three ways - one string instance per book, strings canonicalised through a
+// StringDictionary, and int dictionary codes as K2558859_Title stores them - and then as real
+// K2558859_BasicBook objects for reference. Run with e.g. -Xmx3g for 1M books.
+public class K2558859_CatalogFootprintBenchmark {
+
+    public static void main(String[] args) {
+        int bookCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int authorCount = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int categoryCount = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        System.out.println("Books: " + bookCount + ", distinct authors: " + authorCount +
+                           ", distinct categories: " + categoryCount);
+        System.out.printf("%-36s %16s %10s%n", "Representation", "Heap bytes", "Per book");
+        System.out.println("-".repeat(64));
+
+        long baseline = usedHeap();
+        Object[] plain = new Object[bookCount];
+        for (int i = 0; i < bookCount; i++) {
+            plain[i] = new StringBook(author(i, authorCount), category(i, categoryCount));
+        }
+        long plainBytes = print("Own string instances", usedHeap() - baseline, bookCount);
+        plain = null;
+
+        baseline = usedHeap();
+        StringDictionary authors = new StringDictionary();
+        StringDictionary categories = new StringDictionary();
+        Object[] interned = new Object[bookCount];
+        for (int i = 0; i < bookCount; i++) {
+            interned[i] = new StringBook(authors.intern(author(i, authorCount)),
+                                         categories.intern(category(i, categoryCount)));
+        }
+        long internedBytes = print("Canonical strings (dictionary)", usedHeap() - baseline, bookCount);
+        interned = null;
+
+        baseline = usedHeap();
+        authors = new StringDictionary();
+        categories = new StringDictionary();
+        Object[] encoded = new Object[bookCount];
+        for (int i = 0; i < bookCount; i++) {
+            encoded[i] = new CodedBook(authors.encode(author(i, authorCount)),
+                                       categories.encode(category(i, categoryCount)));
+        }
+        long encodedBytes = print("Dictionary codes", usedHeap() - baseline, bookCount);
+        encoded = null;
+
+        System.out.printf("Saving: %.1f%% with canonical strings, %.1f%% with codes%n",
+                          100.0 * (plainBytes - internedBytes) / plainBytes,
+                          100.0 * (plainBytes - encodedBytes) / plainBytes);
+
+        // Full books for reference: ID, title and ISBN strings plus the per-copy state, history and counters
+        baseline = usedHeap();
+        List<K2558859_Book> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            books.add(new K2558859_BasicBook("B" + i, "Title " + i, author(i, authorCount), category(i, categoryCount),
+                                             "978-" + i));
+        }
+        print("K2558859_BasicBook catalogue", usedHeap() - baseline, bookCount);
+        System.out.println("Title dictionaries: " + K2558859_Title.getDistinctAuthorCount() + " authors, " +
+                           K2558859_Title.getDistinctCategoryCount() + " categories, " +
+                           books.get(bookCount - 1).getAuthor());
+    }
+
+    private static long print(String representation, long bytes, int bookCount) {
+        System.out.printf("%-36s %,16d %,10d%n", representation, bytes, bytes / bookCount);
+        return bytes;
+    }
+
+    // A new String instance on every call, like a value parsed from an import file
+    private static String author(int i, int authorCount) {
+        return new StringBuilder("Author ").append(i % authorCount).toString();
+    }
+
+    private static String category(int i, int categoryCount) {
+        return new StringBuilder("Category ").append(i % categoryCount).toString();
+    }
+
+    // Heap in use after the collector has settled
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    // Author and category held as string references
+    private static class StringBook {
+        private final String author;
+        private final String category;
+
+        private StringBook(String author, String category) {
+            this.author = author;
+            this.category = category;
+        }
+    }
+
+    // Author and category held as dictionary codes
+    private static class CodedBook {
+        private final int authorCode;
+        private final int categoryCode;
+
+        private CodedBook(int authorCode, int categoryCode) {
+            this.authorCode = authorCode;
+            this.categoryCode = categoryCode;
+        }
+    }
+}
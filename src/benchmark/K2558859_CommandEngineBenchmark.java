@@ -0,0 +1,118 @@
+package benchmark;
+
+import command.K2558859_Command;
+import command.K2558859_CommandEventLoop;
+import command.K2558859_CommandResult;
+import command.K2558859_WaitStrategy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// K2558859_CommandEngineBenchmark - Compares the single-writer event loop with a lock-guarded invoker
+// Usage: java benchmark.K2558859_CommandEngineBenchmark [producers] [commandsPerProducer]
+// BUSY_SPIN only pays off when every spinning thread has a core of its own
+public class K2558859_CommandEngineBenchmark {
+    private static final int BOOK_COUNT = 1024;
+
+    // Circulation counters mutated by the benchmark commands; deliberately not thread-safe
+    private final int[] borrowCounts = new int[BOOK_COUNT];
+    private long totalTransitions;
+
+    public static void main(String[] args) throws InterruptedException {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int commandsPerProducer = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        System.out.println("Producers: " + producers + ", commands per producer: " + commandsPerProducer);
+        System.out.printf("%-22s %15s %15s %12s%n", "Engine", "Commands/sec", "Avg batch", "Checksum");
+        System.out.println("-".repeat(68));
+
+        // Warm-up round so the JIT has compiled both paths before measuring
+        runLocked(producers, commandsPerProducer / 10);
+        for (K2558859_WaitStrategy strategy : K2558859_WaitStrategy.values()) {
+            runEventLoop(producers, commandsPerProducer / 10, strategy);
+        }
+
+        print("Locked (ReentrantLock)", runLocked(producers, commandsPerProducer));
+        for (K2558859_WaitStrategy strategy : K2558859_WaitStrategy.values()) {
+            print("Event loop (" + strategy + ")", runEventLoop(producers, commandsPerProducer, strategy));
+        }
+    }
+
+    // Every producer executes its commands itself while holding a shared lock
+    private static Result runLocked(int producers, int commandsPerProducer) throws InterruptedException {
+        K2558859_CommandEngineBenchmark state = new K2558859_CommandEngineBenchmark();
+        ReentrantLock lock = new ReentrantLock();
+        long start = System.nanoTime();
+        runProducers(producers, commandsPerProducer, state, command -> {
+            lock.lock();
+            try {
+                command.execute();
+            } finally {
+                lock.unlock();
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        return new Result((long) producers * commandsPerProducer, elapsed, 1.0, state.totalTransitions);
+    }
+
+    // Producers only publish; the event loop's writer thread applies every command
+    private static Result runEventLoop(int producers, int commandsPerProducer, K2558859_WaitStrategy strategy)
+            throws InterruptedException {
+        K2558859_CommandEngineBenchmark state = new K2558859_CommandEngineBenchmark();
+        K2558859_CommandEventLoop eventLoop = new K2558859_CommandEventLoop(strategy);
+        eventLoop.start();
+        long start = System.nanoTime();
+        runProducers(producers, commandsPerProducer, state, eventLoop::publish);
+        eventLoop.shutdown();
+        long elapsed = System.nanoTime() - start;
+        return new Result(eventLoop.getExecutedCount(), elapsed, eventLoop.getAverageBatchSize(), state.totalTransitions);
+    }
+
+    // Starts the producer threads and waits for all of them to finish submitting
+    private static void runProducers(int producers, int commandsPerProducer, K2558859_CommandEngineBenchmark state,
+                                     Consumer<K2558859_Command> sink) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int offset = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < commandsPerProducer; i++) {
+                    final int bookIndex = (i + offset * 31) & (BOOK_COUNT - 1);
+                    sink.accept(() -> state.recordBorrow(bookIndex));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    // The mutation applied by each benchmark command
+    private K2558859_CommandResult recordBorrow(int bookIndex) {
+        borrowCounts[bookIndex]++;
+        totalTransitions++;
+        return K2558859_CommandResult.applied();
+    }
+
+    private static void print(String engine, Result result) {
+        double perSecond = result.commands / (result.elapsedNanos / 1_000_000_000.0);
+        System.out.printf("%-22s %,15.0f %15.1f %12d%n", engine, perSecond, result.averageBatch, result.checksum);
+    }
+
+    // Result of a single benchmark run
+    private static class Result {
+        private final long commands;
+        private final long elapsedNanos;
+        private final double averageBatch;
+        private final long checksum;
+
+        private Result(long commands, long elapsedNanos, double averageBatch, long checksum) {
+            this.commands = commands;
+            this.elapsedNanos = elapsedNanos;
+            this.averageBatch = averageBatch;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package benchmark;
+
+import model.book.K2558859_BasicBook;
+import model.user.K2558859_Student;
+import service.K2558859_LibraryManagementSystem;
+import service.api.K2558859_LibraryHttpServer;
+import util.NoOpOutputSink;
+import util.Output;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// K2558859_HttpLoadTest - Drives the HTTP API with many concurrent kiosk clients and reports latencies
+// Usage: java benchmark.K2558859_HttpLoadTest [clients] [requestsPerClient] [baseUrl]
+// Without a base URL an in-process server is started on a free port and seeded with books and users;
+// its domain messages go to the no-op output sink so printing does not skew the numbers. The mix is 80% book lookups,
+// 10% borrows and 10% returns.
+public class K2558859_HttpLoadTest {
+    private static final int BOOKS = 2_000;
+    private static final int USERS = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        String baseUrl = args.length > 2 ? args[2] : null;
+
+        PrintStream console = System.out;
+        K2558859_LibraryHttpServer server = null;
+        if (baseUrl == null) {
+            Output.setSink(NoOpOutputSink.INSTANCE);
+            server = new K2558859_LibraryHttpServer(seedLibrary());
+            server.start(0);
+            baseUrl = "http://localhost:" + server.getPort() + "/api";
+        }
+
+        ExecutorService clientThreads = Executors.newFixedThreadPool(clients);
+        HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(clientThreads)
+            .build();
+
+        // Warm-up so connection setup and JIT compilation are not measured
+        runClients(http, baseUrl, Math.min(clients, 16), 50, new long[0][]);
+
+        long[][] latencies = new long[clients][];
+        long start = System.nanoTime();
+        AtomicLongArray statusCounts = runClients(http, baseUrl, clients, requestsPerClient, latencies);
+        long elapsed = System.nanoTime() - start;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        console.println("Clients: " + clients + ", requests: " + all.length + ", server: " + baseUrl +
+                        (server != null ? (server.isUsingVirtualThreads() ? " (virtual threads)" : " (thread pool)") : ""));
+        console.printf("Throughput: %,.0f requests/s%n", all.length / (elapsed / 1_000_000_000.0));
+        console.printf("Latency (ms): p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                       percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 100));
+        console.printf("Responses: 2xx %d, 4xx %d (409 = not applied), 5xx %d, failed %d%n",
+                       statusCounts.get(2), statusCounts.get(4), statusCounts.get(5), statusCounts.get(0));
+
+        clientThreads.shutdownNow();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private static K2558859_LibraryManagementSystem seedLibrary() {
+        K2558859_LibraryManagementSystem library = new K2558859_LibraryManagementSystem();
+        for (int i = 0; i < BOOKS; i++) {
+            library.addBook(new K2558859_BasicBook("B" + i, "Title " + i, "Author " + (i % 100), "Category " + (i % 10),
+                                                   "978-" + i));
+        }
+        for (int i = 0; i < USERS; i++) {
+            library.registerUser(new K2558859_Student("U" + i, "User " + i, "u" + i + "@example.com", "0123456789"));
+        }
+        return library;
+    }
+
+    // Runs the clients to completion; status counts are indexed by status class (0 = request failed)
+    private static AtomicLongArray runClients(HttpClient http, String baseUrl, int clients, int requestsPerClient,
+                                              long[][] latencies) throws InterruptedException {
+        AtomicLongArray statusCounts = new AtomicLongArray(6);
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(client);
+                long[] samples = new long[requestsPerClient];
+                for (int i = 0; i < requestsPerClient; i++) {
+                    HttpRequest request = nextRequest(baseUrl, random);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                        statusCounts.incrementAndGet(response.statusCode() / 100);
+                    } catch (Exception e) {
+                        statusCounts.incrementAndGet(0);
+                    }
+                    samples[i] = System.nanoTime() - start;
+                }
+                if (client < latencies.length) {
+                    latencies[client] = samples;
+                }
+            }, "kiosk-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return statusCounts;
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, Random random) {
+        int roll = random.nextInt(10);
+        String bookId = "B" + random.nextInt(BOOKS);
+        String userId = "U" + random.nextInt(USERS);
+        if (roll < 8) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/books/" + bookId)).GET().build();
+        }
+        String operation = roll == 8 ? "borrow" : "return";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/" + operation + "?bookId=" + bookId + "&userId=" + userId))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import util.IdGenerator;
+import util.SnowflakeIdGenerator;
+import java.util.Arrays;
+import java.util.UUID;
+
+// K2558859_IdGeneratorBenchmark - Measures ID generation under contention and checks every ID is unique
+// Usage: java benchmark.K2558859_IdGeneratorBenchmark [threads] [idsPerThread]
+// Exits with status 1 if any duplicate or out-of-order ID is found.
+public class K2558859_IdGeneratorBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int idsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        System.out.println("Threads: " + threads + ", IDs per thread: " + idsPerThread);
+
+        // Warm-up round so the JIT has compiled the generator before measuring
+        run(new SnowflakeIdGenerator(), threads, idsPerThread / 10);
+
+        long[][] ids = new long[threads][];
+        long elapsed = run(new SnowflakeIdGenerator(), threads, idsPerThread, ids);
+        long total = (long) threads * idsPerThread;
+        System.out.printf("Snowflake: %,.0f IDs/sec%n", total / (elapsed / 1_000_000_000.0));
+
+        // Each thread must see strictly increasing IDs, and no ID may appear twice across threads
+        boolean ordered = true;
+        for (long[] perThread : ids) {
+            for (int i = 1; i < perThread.length; i++) {
+                ordered &= perThread[i] > perThread[i - 1];
+            }
+        }
+        long[] all = new long[(int) total];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(ids[t], 0, all, t * idsPerThread, idsPerThread);
+        }
+        Arrays.sort(all);
+        long duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                duplicates++;
+            }
+        }
+        System.out.println("Duplicates: " + duplicates + ", increasing per thread: " + ordered);
+        System.out.println("Sample: " + new SnowflakeIdGenerator().nextId("BR"));
+
+        long uuidElapsed = runUuid(threads, idsPerThread / 10);
+        System.out.printf("UUID prefix (previous scheme): %,.0f IDs/sec%n",
+                          (long) threads * (idsPerThread / 10) / (uuidElapsed / 1_000_000_000.0));
+
+        if (duplicates > 0 || !ordered) {
+            System.exit(1);
+        }
+    }
+
+    private static long run(IdGenerator generator, int threads, int idsPerThread) throws InterruptedException {
+        return run(generator, threads, idsPerThread, new long[threads][]);
+    }
+
+    // Generates IDs on every thread at once and returns the elapsed nanoseconds
+    private static long run(IdGenerator generator, int threads, int idsPerThread, long[][] ids)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] out = new long[idsPerThread];
+            ids[t] = out;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = generator.nextId();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // The scheme this generator replaced: 8 characters of a random UUID
+    private static long runUuid(int threads, int idsPerThread) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                int sink = 0;
+                for (int i = 0; i < idsPerThread; i++) {
+                    sink += ("BR-" + UUID.randomUUID().toString().substring(0, 8)).length();
+                }
+                if (sink == 0) {
+                    System.out.println();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+}
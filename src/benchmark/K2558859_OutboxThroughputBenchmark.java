@@ -0,0 +1,53 @@
+package benchmark;
+
+import service.notification.outbox.K2558859_LocalSmtpServer;
+import service.notification.outbox.K2558859_NotificationOutbox;
+import service.notification.outbox.K2558859_OutboxDeliveryWorker;
+import service.notification.outbox.K2558859_SmtpTransport;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// K2558859_OutboxThroughputBenchmark - Measures outbox delivery to the local SMTP server
+// Usage: java benchmark.K2558859_OutboxThroughputBenchmark [messages] [workers] [failureRate]
+// A non-zero failure rate makes the server reject that share of messages so the retry path is exercised.
+public class K2558859_OutboxThroughputBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : K2558859_OutboxDeliveryWorker.DEFAULT_WORKER_COUNT;
+        double failureRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.05;
+
+        K2558859_LocalSmtpServer server = new K2558859_LocalSmtpServer();
+        server.setFailureRate(failureRate);
+        server.start();
+
+        Path logFile = Files.createTempFile("outbox-benchmark", ".log");
+        K2558859_OutboxDeliveryWorker worker = new K2558859_OutboxDeliveryWorker(
+            new K2558859_NotificationOutbox(logFile),
+            new K2558859_SmtpTransport("localhost", server.getPort(), "library@library.local"),
+            workers, K2558859_OutboxDeliveryWorker.DEFAULT_MAX_ATTEMPTS, 1, 50);
+        worker.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            worker.submit("Patron " + (i % 500), "patron" + (i % 500) + "@example.com",
+                          "Your borrowed book is due in 3 days - 'Book " + i + "'");
+        }
+        while (worker.getDeliveredCount() + worker.getDeadCount() < messages) {
+            Thread.sleep(5);
+        }
+        long elapsed = System.nanoTime() - start;
+        worker.shutdown(1_000);
+        server.stop();
+
+        double minutes = elapsed / 60_000_000_000.0;
+        System.out.println("Messages: " + messages + ", workers: " + workers + ", failure rate: " + failureRate);
+        System.out.printf("Delivered: %d, retries: %d, dead letters: %d, received by server: %d%n",
+                          worker.getDeliveredCount(), worker.getRetriedCount(), worker.getDeadCount(),
+                          server.getReceivedCount());
+        System.out.printf("Elapsed: %.2f s, throughput: %,.0f messages/min%n", elapsed / 1e9, messages / minutes);
+        System.out.println("Outbox log: " + Files.size(logFile) + " bytes");
+        Files.deleteIfExists(logFile);
+    }
+}
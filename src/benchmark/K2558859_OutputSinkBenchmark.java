@@ -0,0 +1,70 @@
+package benchmark;
+
+import model.book.K2558859_BasicBook;
+import model.user.K2558859_Student;
+import service.K2558859_LibraryManagementSystem;
+import util.AsyncOutputSink;
+import util.ConsoleOutputSink;
+import util.NoOpOutputSink;
+import util.Output;
+import util.OutputSink;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+
+// K2558859_OutputSinkBenchmark - Measures bulk borrow/return throughput with each output sink installed
+// Usage: java benchmark.K2558859_OutputSinkBenchmark [books] [rounds] > /dev/null
+// Every borrow and return reports a confirmation; the console sink prints it through an autoflushing
+// System.out, the async sink hands it to the writer thread and the no-op sink drops it. Results are
+// printed on System.err so standard output can be redirected to a file or /dev/null.
+public class K2558859_OutputSinkBenchmark {
+
+    public static void main(String[] args) {
+        int bookCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        // An autoflushing stream on the real standard output, as an interactive console has
+        System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.out), true));
+
+        K2558859_LibraryManagementSystem library = new K2558859_LibraryManagementSystem();
+        for (int i = 0; i < bookCount; i++) {
+            library.addBook(new K2558859_BasicBook("B" + i, "Title " + i, "Author", "Category", "978-" + i));
+            library.registerUser(new K2558859_Student("U" + i, "User " + i, "u" + i + "@example.com", "0123456789"));
+        }
+
+        System.err.println("Books: " + bookCount + ", rounds: " + rounds + " (one borrow and one return per book)");
+        System.err.printf("%-10s %12s %16s%n", "Sink", "Elapsed ms", "Operations/s");
+        System.err.println("-".repeat(40));
+        run("console", new ConsoleOutputSink(OutputSink.Level.INFO), library, bookCount, rounds);
+        run("async", new AsyncOutputSink(OutputSink.Level.INFO), library, bookCount, rounds);
+        run("no-op", NoOpOutputSink.INSTANCE, library, bookCount, rounds);
+    }
+
+    private static void run(String name, OutputSink sink, K2558859_LibraryManagementSystem library,
+                            int bookCount, int rounds) {
+        OutputSink previous = Output.setSink(sink);
+        cycle(library, bookCount);
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            cycle(library, bookCount);
+        }
+        // The async sink is only done once its writer has caught up
+        sink.flush();
+        long elapsed = System.nanoTime() - start;
+        sink.close();
+        Output.setSink(previous);
+
+        long operations = 2L * bookCount * rounds;
+        System.err.printf("%-10s %12.1f %,16.0f%n", name, elapsed / 1_000_000.0,
+                          operations / (elapsed / 1_000_000_000.0));
+    }
+
+    private static void cycle(K2558859_LibraryManagementSystem library, int bookCount) {
+        for (int i = 0; i < bookCount; i++) {
+            library.borrowBook("B" + i, "U" + i);
+        }
+        for (int i = 0; i < bookCount; i++) {
+            library.returnBook("B" + i, "U" + i);
+        }
+    }
+}
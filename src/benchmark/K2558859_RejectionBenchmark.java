@@ -0,0 +1,94 @@
+package benchmark;
+
+import command.K2558859_BorrowCommand;
+import command.K2558859_CommandResult;
+import model.book.K2558859_BasicBook;
+import model.book.K2558859_Book;
+import model.user.K2558859_Student;
+import model.user.K2558859_User;
+import service.K2558859_LibraryManagementSystem;
+import exception.LibraryException;
+import util.NoOpOutputSink;
+import util.Output;
+
+// K2558859_RejectionBenchmark - Measures borrow attempts that are all turned down by the borrow limit
+// Usage: java benchmark.K2558859_RejectionBenchmark [attempts]
+// A student who is already at the limit keeps trying to borrow another book. The command path reports
+// each rejection with the shared, stackless violation and a result whose message is never built; the
+// baseline throws a new exception with a formatted message and a stack trace per attempt, as the
+// commands used to. Domain output goes to the no-op sink so printing is not measured.
+public class K2558859_RejectionBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int attempts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Output.setSink(NoOpOutputSink.INSTANCE);
+
+        K2558859_LibraryManagementSystem library = new K2558859_LibraryManagementSystem();
+        K2558859_User student = new K2558859_Student("U1", "Student", "s@example.com", "0123456789");
+        library.registerUser(student);
+        for (int i = 0; i < student.getMaxBorrowCapacity() + 1; i++) {
+            library.addBook(new K2558859_BasicBook("B" + i, "Title " + i, "Author", "Category", "978-" + i));
+        }
+        for (int i = 0; i < student.getMaxBorrowCapacity(); i++) {
+            library.borrowBook("B" + i, "U1");
+        }
+        K2558859_Book wanted = library.findBookById("B" + student.getMaxBorrowCapacity());
+        K2558859_BorrowCommand command = new K2558859_BorrowCommand(student, wanted);
+
+        long checksum = 0;
+        for (int warmUp = 0; warmUp < 2; warmUp++) {
+            checksum += runCommands(command, attempts / 10) + runBaseline(student, attempts / 10);
+        }
+
+        System.out.println("Attempts per round: " + attempts + ", rounds: " + ROUNDS);
+        System.out.printf("%-40s %16s%n", "Path", "Rejections/s");
+        System.out.println("-".repeat(58));
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            checksum += runCommands(command, attempts);
+        }
+        print("Typed result, shared violation", attempts, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            checksum += runBaseline(student, attempts);
+        }
+        print("New exception per rejection (before)", attempts, System.nanoTime() - start);
+        System.out.println("Checksum: " + checksum);
+    }
+
+    private static long runCommands(K2558859_BorrowCommand command, int attempts) {
+        long rejected = 0;
+        for (int i = 0; i < attempts; i++) {
+            K2558859_CommandResult result = command.execute();
+            if (result.isRejected()) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    // The earlier shape of the limit check: count the open loans, then throw a fresh exception
+    private static long runBaseline(K2558859_User user, int attempts) {
+        long rejected = 0;
+        for (int i = 0; i < attempts; i++) {
+            try {
+                if (user.getActiveBorrowCount() >= user.getMaxBorrowCapacity()) {
+                    throw new LibraryException(user.getName() + " has reached the borrow limit of " +
+                                               user.getMaxBorrowCapacity() + " books.");
+                }
+            } catch (LibraryException e) {
+                if (e.getMessage() != null) {
+                    rejected++;
+                }
+            }
+        }
+        return rejected;
+    }
+
+    private static void print(String path, int attempts, long elapsedNanos) {
+        double perSecond = (double) attempts * ROUNDS / (elapsedNanos / 1_000_000_000.0);
+        System.out.printf("%-40s %,16.0f%n", path, perSecond);
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import model.book.K2558859_BasicBook;
+import model.book.K2558859_Book;
+import model.book.K2558859_BookMetadata;
+import model.book.K2558859_Title;
+import model.book.state.K2558859_BookState;
+import model.book.state.K2558859_BookStateTable;
+import java.util.ArrayList;
+import java.util.List;
+
+// K2558859_StateCountBenchmark - Counts books per state over a large collection three ways
+// Usage: java benchmark.K2558859_StateCountBenchmark [books]
+// Compares comparing state names on every book, comparing state codes on every book, and
+// scanning the compact byte-per-book state table.
+public class K2558859_StateCountBenchmark {
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        int bookCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        K2558859_Title title = new K2558859_Title("Course Text", "Author", "Textbook", "978-0", K2558859_BookMetadata.EMPTY);
+        K2558859_BookStateTable table = new K2558859_BookStateTable();
+        List<K2558859_Book> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            K2558859_Book book = new K2558859_BasicBook("B" + i, title);
+            book.attachStateTable(table);
+            book.setState(K2558859_BookState.forCode((byte) (i % K2558859_BookState.STATE_COUNT)));
+            books.add(book);
+        }
+        System.out.println("Books: " + bookCount);
+
+        long checksum = 0;
+        for (int warmUp = 0; warmUp < 5; warmUp++) {
+            checksum += countByName(books) + countByCode(books) + table.countAll()[K2558859_BookState.BORROWED];
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += countByName(books);
+        }
+        report("String state names", start, checksum);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += countByCode(books);
+        }
+        report("Byte state codes", start, checksum);
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += table.countAll()[K2558859_BookState.BORROWED];
+        }
+        report("Compact state table", start, checksum);
+    }
+
+    private static int countByName(List<K2558859_Book> books) {
+        int count = 0;
+        for (K2558859_Book book : books) {
+            if (book.getAvailabilityStatus().getStateName().equals("Borrowed")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countByCode(List<K2558859_Book> books) {
+        int count = 0;
+        for (K2558859_Book book : books) {
+            if (book.getAvailabilityStatus().getStateCode() == K2558859_BookState.BORROWED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void report(String approach, long startNanos, long checksum) {
+        double millisPerCount = (System.nanoTime() - startNanos) / 1_000_000.0 / ROUNDS;
+        System.out.printf("%-22s %10.3f ms per count (checksum %d)%n", approach, millisPerCount, checksum);
+    }
+}
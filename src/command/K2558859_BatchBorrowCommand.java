@@ -0,0 +1,60 @@
+package command;
+
+import model.user.K2558859_User;
+import model.book.K2558859_Book;
+import model.book.state.K2558859_AvailableState;
+import model.borrow.K2558859_BorrowRecord;
+import exception.LibraryException;
+import exception.RuleViolationException;
+import util.Output;
+import java.util.ArrayList;
+import java.util.List;
+
+// K2558859_BatchBorrowCommand - Concrete command for borrowing several books in one transaction
+public class K2558859_BatchBorrowCommand implements K2558859_Command {
+    private K2558859_User user;
+    private List<K2558859_Book> books;
+    private List<K2558859_BorrowRecord> records; // Loans created by the last successful execute
+
+    // Constructor for K2558859_BatchBorrowCommand
+    public K2558859_BatchBorrowCommand(K2558859_User user, List<K2558859_Book> books) {
+        this.user = user;
+        this.books = new ArrayList<>(books);
+    }
+
+    // Executes the batch borrow command
+    @Override
+    public K2558859_CommandResult execute() {
+        records = null;
+        try {
+            records = user.borrowBooks(books);
+        } catch (RuleViolationException e) {
+            return K2558859_CommandResult.violation(e.getRule(), null, user).report();
+        } catch (LibraryException e) {
+            return K2558859_CommandResult.rejected(e.getMessage()).report();
+        }
+        return K2558859_CommandResult.applied(records);
+    }
+
+    // Undoes the whole batch by removing every loan it created
+    @Override
+    public boolean undo() {
+        // Patrons who queued for any of the books since must not lose their place to an undo
+        if (records == null || records.stream().anyMatch(record -> record.getReturnDate() != null
+                || !record.getBook().getReservationQueue().isEmpty())) {
+            Output.error("Error: The batch borrow can no longer be undone.");
+            return false;
+        }
+        for (int i = records.size() - 1; i >= 0; i--) {
+            K2558859_AvailableState.revertCheckout(records.get(i));
+        }
+        Output.info("Undone: batch borrow of " + records.size() + " book(s) by " + user.getName() + ".");
+        records = null;
+        return true;
+    }
+
+    @Override
+    public boolean isUndoable() {
+        return records != null;
+    }
+}
@@ -0,0 +1,70 @@
+package command;
+
+import model.user.K2558859_User;
+import model.book.K2558859_Book;
+import model.book.state.K2558859_BookState;
+import model.borrow.K2558859_BorrowRecord;
+import exception.LibraryException;
+import util.Output;
+import java.util.ArrayList;
+import java.util.List;
+
+// K2558859_BatchReturnCommand - Concrete command for returning several books in one transaction
+public class K2558859_BatchReturnCommand implements K2558859_Command {
+    private K2558859_User user;
+    private List<K2558859_Book> books;
+    private List<K2558859_BorrowRecord> records; // Loans closed by the last execute, if it can be undone
+    private List<K2558859_BookState> statesBeforeReturn;
+
+    // Constructor for K2558859_BatchReturnCommand
+    public K2558859_BatchReturnCommand(K2558859_User user, List<K2558859_Book> books) {
+        this.user = user;
+        this.books = new ArrayList<>(books);
+    }
+
+    // Executes the batch return command
+    @Override
+    public K2558859_CommandResult execute() {
+        records = null;
+        List<K2558859_BookState> statesBefore = new ArrayList<>(books.size());
+        for (K2558859_Book book : books) {
+            statesBefore.add(book.getAvailabilityStatus());
+        }
+        List<K2558859_BorrowRecord> closed;
+        try {
+            closed = user.returnBooks(books);
+        } catch (LibraryException e) {
+            return K2558859_CommandResult.rejected(e.getMessage()).report();
+        }
+        // A batch that handed any book to the next patron cannot be undone, so it stays out of the history
+        boolean handedOff = books.stream().anyMatch(
+            book -> book.getAvailabilityStatus().getStateCode() != K2558859_BookState.AVAILABLE);
+        if (!handedOff) {
+            records = closed;
+            statesBeforeReturn = statesBefore;
+        }
+        return K2558859_CommandResult.applied(closed);
+    }
+
+    // Undoes the whole batch by reopening every loan it closed
+    @Override
+    public boolean undo() {
+        if (records == null || books.stream().anyMatch(
+                book -> book.getAvailabilityStatus().getStateCode() != K2558859_BookState.AVAILABLE)) {
+            Output.error("Error: The batch return can no longer be undone.");
+            return false;
+        }
+        for (int i = 0; i < books.size(); i++) {
+            records.get(i).setReturnDate(null);
+            books.get(i).setState(statesBeforeReturn.get(i));
+        }
+        Output.info("Undone: batch return of " + books.size() + " book(s) by " + user.getName() + ".");
+        records = null;
+        return true;
+    }
+
+    @Override
+    public boolean isUndoable() {
+        return records != null;
+    }
+}
@@ -2,12 +2,17 @@ package command;
 
 import model.user.K2558859_User;
 import model.book.K2558859_Book;
-import exception.LibraryException;
+import model.book.state.K2558859_AvailableState;
+import model.book.state.K2558859_BookState;
+import model.borrow.K2558859_BorrowRecord;
+import exception.RuleViolationException;
+import util.Output;
 
 // K2558859_BorrowCommand - Concrete command for borrowing a book
 public class K2558859_BorrowCommand implements K2558859_Command {
     private K2558859_User user;
     private K2558859_Book book;
+    private K2558859_BorrowRecord record; // Loan created by the last successful execute
 
     // Constructor for K2558859_BorrowCommand
     public K2558859_BorrowCommand(K2558859_User user, K2558859_Book book) {
@@ -17,11 +22,38 @@ public class K2558859_BorrowCommand implements K2558859_Command {
 
     // Executes the borrow command
     @Override
-    public void execute() {
+    public K2558859_CommandResult execute() {
+        record = null;
+        K2558859_BookState stateBefore = book.getAvailabilityStatus();
         try {
             user.borrowBook(book);
-        } catch (LibraryException e) {
-            System.out.println("Error: " + e.getMessage());
+        } catch (RuleViolationException e) {
+            return K2558859_CommandResult.violation(e.getRule(), book, user).report();
         }
+        K2558859_BorrowRecord loan = user.findOpenBorrowRecord(book);
+        // Collecting a hold fulfils the reservation, so only borrows of available books can be undone
+        if (stateBefore instanceof K2558859_AvailableState) {
+            record = loan;
+        }
+        return K2558859_CommandResult.applied(loan);
+    }
+
+    // Undoes the borrow by removing the loan it created
+    @Override
+    public boolean undo() {
+        // Patrons who queued for the book since must not lose their place to an undo
+        if (record == null || record.getReturnDate() != null || !book.getReservationQueue().isEmpty()) {
+            Output.error("Error: The borrow of '" + book.getTitle() + "' can no longer be undone.");
+            return false;
+        }
+        K2558859_AvailableState.revertCheckout(record);
+        record = null;
+        Output.info("Undone: borrow of '" + book.getTitle() + "' by " + user.getName() + ".");
+        return true;
+    }
+
+    @Override
+    public boolean isUndoable() {
+        return record != null;
     }
 }
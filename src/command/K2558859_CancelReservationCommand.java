@@ -2,12 +2,19 @@ package command;
 
 import model.user.K2558859_User;
 import model.book.K2558859_Book;
-import exception.LibraryException;
+import model.book.state.K2558859_BookState;
+import model.reservation.K2558859_Reservation;
+import exception.RuleViolationException;
+import util.Output;
 
 // K2558859_CancelReservationCommand - Concrete command for cancelling a reservation
 public class K2558859_CancelReservationCommand implements K2558859_Command {
     private K2558859_User user;
     private K2558859_Book book;
+    private K2558859_Reservation cancelled; // Reservation removed by the last successful execute
+    private K2558859_BookState stateBeforeCancel;
+    private K2558859_BookState stateAfterCancel; // Undo is only safe while the book is still in this state
+    private K2558859_Reservation holderAfterCancel;
 
     // Constructor for K2558859_CancelReservationCommand
     public K2558859_CancelReservationCommand(K2558859_User user, K2558859_Book book) {
@@ -17,11 +24,43 @@ public class K2558859_CancelReservationCommand implements K2558859_Command {
 
     // Executes the cancel reservation command
     @Override
-    public void execute() {
+    public K2558859_CommandResult execute() {
+        K2558859_Reservation reservation = user.findReservation(book);
+        K2558859_BookState stateBefore = book.getAvailabilityStatus();
+        // Cancelling a hold passes the book on to the next patron, who has already been notified
+        boolean wasHolder = reservation != null && book.getReservationQueue().getHolder() == reservation;
+        cancelled = null;
         try {
             user.cancelReservation(book);
-        } catch (LibraryException e) {
-            System.out.println("Error: " + e.getMessage());
+        } catch (RuleViolationException e) {
+            return K2558859_CommandResult.violation(e.getRule(), book, user).report();
         }
+        if (!wasHolder) {
+            cancelled = reservation;
+            stateBeforeCancel = stateBefore;
+            stateAfterCancel = book.getAvailabilityStatus();
+            holderAfterCancel = book.getReservationQueue().getHolder();
+        }
+        return K2558859_CommandResult.applied();
+    }
+
+    // Undoes the cancellation by restoring the same reservation
+    @Override
+    public boolean undo() {
+        // A return or hold placed since (not recorded in the history) must not be overwritten
+        if (cancelled == null || user.findReservation(book) != null
+                || !user.restoreReservation(cancelled, stateAfterCancel, holderAfterCancel, stateBeforeCancel)) {
+            Output.error("Error: The cancellation for '" + book.getTitle() + "' can no longer be undone.");
+            return false;
+        }
+        cancelled = null;
+        Output.info("Undone: cancellation of the reservation for '" + book.getTitle() + "' by " +
+                         user.getName() + ".");
+        return true;
+    }
+
+    @Override
+    public boolean isUndoable() {
+        return cancelled != null;
     }
 }
@@ -2,5 +2,17 @@ package command;
 
 // K2558859_Command interface for Command Pattern
 public interface K2558859_Command {
-    void execute();
+    // Executes the command and reports whether it applied or why it was rejected
+    K2558859_CommandResult execute();
+
+    // Reverses the effect of the last successful execute; returns false if it can no longer be reversed
+    // Commands that never support undo keep this default and are kept out of the history by isUndoable
+    default boolean undo() {
+        return false;
+    }
+
+    // Checks whether the last execute changed anything that undo can reverse
+    default boolean isUndoable() {
+        return false;
+    }
 }
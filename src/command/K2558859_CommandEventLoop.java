@@ -0,0 +1,188 @@
+package command;
+
+import util.Output;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// K2558859_CommandEventLoop - Single-writer engine that applies commands from a pre-allocated ring buffer
+// Any number of threads may publish; one dedicated writer thread executes the commands in sequence,
+// so the domain model is only ever mutated by that thread and needs no locks.
+public class K2558859_CommandEventLoop {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private final K2558859_Command[] slots;
+    private final AtomicLongArray publishedSequences;
+    private final int mask;
+    private final int maxBatchSize;
+    private final K2558859_WaitStrategy waitStrategy;
+
+    // Last sequence claimed by a publisher and last sequence fully executed by the writer
+    private final AtomicLong claimedSequence = new AtomicLong(-1);
+    private final AtomicLong executedSequence = new AtomicLong(-1);
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong activePublishers = new AtomicLong(); // Publishers between their running check and publish
+    private final Thread writer;
+    private volatile boolean running;
+
+    // Constructor with the default capacity and batch size
+    public K2558859_CommandEventLoop(K2558859_WaitStrategy waitStrategy) {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_BATCH_SIZE, waitStrategy);
+    }
+
+    // Constructor for K2558859_CommandEventLoop; capacity must be a power of two
+    public K2558859_CommandEventLoop(int capacity, int maxBatchSize, K2558859_WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.slots = new K2558859_Command[capacity];
+        this.publishedSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            publishedSequences.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.maxBatchSize = maxBatchSize;
+        this.waitStrategy = waitStrategy;
+        this.writer = new Thread(this::runWriter, "command-event-loop");
+        this.writer.setDaemon(true);
+    }
+
+    // Starts the writer thread
+    public void start() {
+        running = true;
+        writer.start();
+    }
+
+    // Publishes a command into the ring buffer, waiting for a free slot if the buffer is full
+    // Returns false, without publishing, once shutdown has begun; a command that was published is always executed
+    public boolean publish(K2558859_Command command) {
+        activePublishers.incrementAndGet();
+        try {
+            if (!running) {
+                return false;
+            }
+            long sequence = claimedSequence.incrementAndGet();
+            long wrapPoint = sequence - slots.length;
+            int attempt = 0;
+            while (wrapPoint > executedSequence.get()) {
+                waitStrategy.idle(attempt++);
+            }
+            int index = (int) (sequence & mask);
+            slots[index] = command;
+            publishedSequences.lazySet(index, sequence);
+            return true;
+        } finally {
+            activePublishers.decrementAndGet();
+        }
+    }
+
+    // Blocks until every command published so far has been executed
+    public void awaitProcessed() {
+        long target = claimedSequence.get();
+        int attempt = 0;
+        while (executedSequence.get() < target) {
+            if (!writer.isAlive()) {
+                return;
+            }
+            waitStrategy.idle(attempt++);
+        }
+    }
+
+    // Stops accepting commands, executes everything already published and stops the writer
+    public void shutdown() {
+        running = false;
+        awaitStopped();
+    }
+
+    // Blocks until the writer has stopped after a shutdown
+    public void awaitStopped() {
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writer loop - executes consecutive published commands in batches
+    private void runWriter() {
+        long next = 0;
+        int attempt = 0;
+        // After shutdown, keep going until no publisher is mid-publish and every claimed sequence has run
+        while (running || activePublishers.get() > 0 || next <= claimedSequence.get()) {
+            long available = highestPublished(next);
+            if (available < next) {
+                waitStrategy.idle(attempt++);
+                continue;
+            }
+            attempt = 0;
+            for (long sequence = next; sequence <= available; sequence++) {
+                int index = (int) (sequence & mask);
+                K2558859_Command command = slots[index];
+                slots[index] = null;
+                try {
+                    if (command.execute().isRejected()) {
+                        rejectedCount.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    failedCount.incrementAndGet();
+                    Output.error("Error: Command failed in event loop: " + e.getMessage());
+                }
+            }
+            batchCount.incrementAndGet();
+            executedSequence.lazySet(available);
+            next = available + 1;
+        }
+    }
+
+    // Finds the end of the contiguous run of published sequences starting at 'from'
+    private long highestPublished(long from) {
+        long limit = from + maxBatchSize;
+        long sequence = from;
+        while (sequence < limit && publishedSequences.get((int) (sequence & mask)) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    // ----- Metrics -----
+
+    public long getExecutedCount() {
+        return executedSequence.get() + 1;
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    // Commands that ran but were turned down by a circulation rule
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0.0 : (double) getExecutedCount() / batches;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public K2558859_WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
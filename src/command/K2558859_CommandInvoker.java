@@ -1,31 +1,131 @@
 package command;
 
+import util.Output;
 import java.util.ArrayList;
 import java.util.List;
 
 // K2558859_CommandInvoker class for Command Pattern
+// Keeps a bounded ring buffer of applied commands; the oldest entries are dropped once it is full
 public class K2558859_CommandInvoker {
-    private List<K2558859_Command> commandHistory;
+    public static final int DEFAULT_HISTORY_CAPACITY = 100;
+
+    private final K2558859_Command[] commandHistory;
+    private int start;   // Ring index of the oldest command
+    private int size;    // Commands held, applied and undone
+    private int applied; // Commands that are currently applied; the rest can be redone
 
     // Constructor for K2558859_CommandInvoker
     public K2558859_CommandInvoker() {
-        this.commandHistory = new ArrayList<>();
+        this(DEFAULT_HISTORY_CAPACITY);
+    }
+
+    // Constructor for K2558859_CommandInvoker with a custom history capacity
+    public K2558859_CommandInvoker(int historyCapacity) {
+        if (historyCapacity < 1) {
+            throw new IllegalArgumentException("History capacity must be positive: " + historyCapacity);
+        }
+        this.commandHistory = new K2558859_Command[historyCapacity];
+    }
+
+    // Executes a command and adds it to the history if it can be undone
+    public K2558859_CommandResult executeCommand(K2558859_Command command) {
+        K2558859_CommandResult result = command.execute();
+        if (!command.isUndoable()) {
+            return result;
+        }
+
+        // A new command invalidates everything that could have been redone
+        for (int i = applied; i < size; i++) {
+            commandHistory[slot(i)] = null;
+        }
+        size = applied;
+
+        if (size == commandHistory.length) {
+            commandHistory[start] = null;
+            start = slot(1);
+            size--;
+        }
+        commandHistory[slot(size)] = command;
+        size++;
+        applied = size;
+        return result;
+    }
+
+    // Undoes the most recently applied command that can still be undone
+    // Commands that have gone stale (e.g. someone has since queued for the book) are dropped from the
+    // history, so they do not block the older entries beneath them
+    public boolean undo() {
+        while (applied > 0) {
+            K2558859_Command command = commandHistory[slot(applied - 1)];
+            if (command.undo()) {
+                applied--;
+                return true;
+            }
+            // The stale command stays in effect; redo entries recorded on top of it are discarded with it
+            for (int i = applied - 1; i < size; i++) {
+                commandHistory[slot(i)] = null;
+            }
+            applied--;
+            size = applied;
+        }
+        Output.info("Nothing to undo.");
+        return false;
     }
 
-    // Executes a command and adds it to the history
-    public void executeCommand(K2558859_Command command) {
+    // Re-applies the most recently undone command
+    public boolean redo() {
+        if (applied == size) {
+            Output.info("Nothing to redo.");
+            return false;
+        }
+        K2558859_Command command = commandHistory[slot(applied)];
         command.execute();
-        commandHistory.add(command);
+        if (!command.isUndoable()) {
+            // The command could not be re-applied, so the remaining redo entries are stale
+            for (int i = applied; i < size; i++) {
+                commandHistory[slot(i)] = null;
+            }
+            size = applied;
+            return false;
+        }
+        applied++;
+        return true;
     }
 
-    // Gets the command history
+    // Gets the applied commands, oldest first
     public List<K2558859_Command> getCommandHistory() {
-        return new ArrayList<>(commandHistory);
+        List<K2558859_Command> history = new ArrayList<>(applied);
+        for (int i = 0; i < applied; i++) {
+            history.add(commandHistory[slot(i)]);
+        }
+        return history;
+    }
+
+    public int getHistoryCapacity() {
+        return commandHistory.length;
+    }
+
+    public boolean canUndo() {
+        return applied > 0;
+    }
+
+    public boolean canRedo() {
+        return applied < size;
     }
 
     // Clears the command history
     public void clearHistory() {
-        commandHistory.clear();
-        System.out.println("Command history cleared.");
+        for (int i = 0; i < size; i++) {
+            commandHistory[slot(i)] = null;
+        }
+        start = 0;
+        size = 0;
+        applied = 0;
+        Output.info("Command history cleared.");
+    }
+
+    // Maps a position in the history (0 = oldest) to its ring index
+    private int slot(int position) {
+        return (start + position) % commandHistory.length;
     }
 }
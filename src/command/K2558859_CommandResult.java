@@ -0,0 +1,213 @@
+package command;
+
+import model.book.K2558859_Book;
+import model.borrow.K2558859_BorrowRecord;
+import model.reservation.K2558859_Reservation;
+import model.user.K2558859_User;
+import exception.RuleViolationException;
+import util.Output;
+import util.OutputSink;
+import java.util.Collections;
+import java.util.List;
+
+// K2558859_CommandResult - Typed outcome of a circulation command
+// A command either applied (with the loans or reservation it created or closed), was queued for the event
+// loop, or was rejected with a specific status. Rejection messages are only built when they are asked for,
+// so workloads with many rejections do not pay for formatting text nobody reads.
+public final class K2558859_CommandResult {
+
+    // What happened to the command
+    public enum Status {
+        APPLIED,
+        QUEUED,
+        BOOK_NOT_FOUND,
+        USER_NOT_FOUND,
+        RULE_VIOLATION,
+        REJECTED
+    }
+
+    private static final K2558859_CommandResult APPLIED = new K2558859_CommandResult(Status.APPLIED, null, null, null,
+                                                                                   null, Collections.emptyList(), null);
+    private static final K2558859_CommandResult QUEUED = new K2558859_CommandResult(Status.QUEUED, null, null, null,
+                                                                                  null, Collections.emptyList(), null);
+
+    private final Status status;
+    private final RuleViolationException.Rule rule;
+    private final K2558859_Book book;
+    private final K2558859_User user;
+    private final String detail; // Missing ID for not-found results, the message for other rejections
+    private final List<K2558859_BorrowRecord> borrowRecords;
+    private final K2558859_Reservation reservation;
+
+    private K2558859_CommandResult(Status status, RuleViolationException.Rule rule, K2558859_Book book,
+                                   K2558859_User user, String detail, List<K2558859_BorrowRecord> borrowRecords,
+                                   K2558859_Reservation reservation) {
+        this.status = status;
+        this.rule = rule;
+        this.book = book;
+        this.user = user;
+        this.detail = detail;
+        this.borrowRecords = borrowRecords;
+        this.reservation = reservation;
+    }
+
+    // ----- Factories -----
+
+    // Applied without anything to hand back (e.g. a cancelled reservation)
+    public static K2558859_CommandResult applied() {
+        return APPLIED;
+    }
+
+    // Applied, creating or closing one loan
+    public static K2558859_CommandResult applied(K2558859_BorrowRecord record) {
+        if (record == null) {
+            return APPLIED;
+        }
+        return new K2558859_CommandResult(Status.APPLIED, null, null, null, null,
+                                          Collections.singletonList(record), null);
+    }
+
+    // Applied, creating or closing several loans
+    public static K2558859_CommandResult applied(List<K2558859_BorrowRecord> records) {
+        return new K2558859_CommandResult(Status.APPLIED, null, null, null, null,
+                                          Collections.unmodifiableList(records), null);
+    }
+
+    // Applied, creating a reservation
+    public static K2558859_CommandResult applied(K2558859_Reservation reservation) {
+        return new K2558859_CommandResult(Status.APPLIED, null, null, null, null, Collections.emptyList(),
+                                          reservation);
+    }
+
+    // Handed to the command event loop; the outcome is not known yet
+    public static K2558859_CommandResult queued() {
+        return QUEUED;
+    }
+
+    public static K2558859_CommandResult bookNotFound(String bookId) {
+        return new K2558859_CommandResult(Status.BOOK_NOT_FOUND, null, null, null, bookId, Collections.emptyList(),
+                                          null);
+    }
+
+    public static K2558859_CommandResult userNotFound(String userId) {
+        return new K2558859_CommandResult(Status.USER_NOT_FOUND, null, null, null, userId, Collections.emptyList(),
+                                          null);
+    }
+
+    // Rejected by a circulation rule; the book and user are kept to describe the rejection on demand
+    public static K2558859_CommandResult violation(RuleViolationException.Rule rule, K2558859_Book book,
+                                                   K2558859_User user) {
+        return new K2558859_CommandResult(Status.RULE_VIOLATION, rule, book, user, null, Collections.emptyList(),
+                                          null);
+    }
+
+    // Rejected for another reason, described by the message
+    public static K2558859_CommandResult rejected(String message) {
+        return new K2558859_CommandResult(Status.REJECTED, null, null, null, message, Collections.emptyList(), null);
+    }
+
+    // ----- Queries -----
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isApplied() {
+        return status == Status.APPLIED;
+    }
+
+    public boolean isQueued() {
+        return status == Status.QUEUED;
+    }
+
+    // Checks whether the command was turned down (not applied and not merely queued)
+    public boolean isRejected() {
+        return status != Status.APPLIED && status != Status.QUEUED;
+    }
+
+    // Gets the rule that was broken, or null unless the status is RULE_VIOLATION
+    public RuleViolationException.Rule getRule() {
+        return rule;
+    }
+
+    // Gets the loan created or closed, or null
+    public K2558859_BorrowRecord getBorrowRecord() {
+        return borrowRecords.isEmpty() ? null : borrowRecords.get(0);
+    }
+
+    public List<K2558859_BorrowRecord> getBorrowRecords() {
+        return borrowRecords;
+    }
+
+    // Gets the reservation created, or null
+    public K2558859_Reservation getReservation() {
+        return reservation;
+    }
+
+    // Describes the outcome; for rejections this is the message shown to the user
+    public String getMessage() {
+        switch (status) {
+            case APPLIED:
+                return "Applied.";
+            case QUEUED:
+                return "Queued for the command event loop.";
+            case BOOK_NOT_FOUND:
+                return "Book with ID '" + detail + "' not found.";
+            case USER_NOT_FOUND:
+                return "User with ID '" + detail + "' not found.";
+            case RULE_VIOLATION:
+                return describeViolation();
+            default:
+                return detail;
+        }
+    }
+
+    // Prints the rejection message when errors are being written at all; returns this result
+    public K2558859_CommandResult report() {
+        if (isRejected() && Output.isEnabled(OutputSink.Level.ERROR)) {
+            Output.error("Error: " + getMessage());
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return rule != null ? status + " (" + rule + ")" : status.toString();
+    }
+
+    private String describeViolation() {
+        String title = book != null ? book.getTitle() : "";
+        String name = user != null ? user.getName() : "";
+        switch (rule) {
+            case BORROW_LIMIT_REACHED:
+                return name + " has reached the borrow limit of " + user.getMaxBorrowCapacity() + " books.";
+            case BATCH_EXCEEDS_LIMIT:
+                return name + " can borrow only " + (user.getMaxBorrowCapacity() - user.getActiveBorrowCount()) +
+                       " more book(s) (limit " + user.getMaxBorrowCapacity() + ").";
+            case BOOK_BORROWED:
+                return "Book '" + title + "' is already borrowed and unavailable.";
+            case BOOK_RESERVED:
+                return "Book '" + title + "' is currently reserved and cannot be borrowed.";
+            case BOOK_ON_HOLD:
+                return "Book '" + title + "' is on hold for another patron.";
+            case BOOK_ALREADY_AVAILABLE:
+                return "Book '" + title + "' is already available and cannot be returned.";
+            case BOOK_AVAILABLE_TO_BORROW:
+                return "Book '" + title + "' is available. Please borrow it directly instead of reserving.";
+            case HOLD_NOT_COLLECTED:
+                return "Book '" + title + "' is on hold and has not been borrowed.";
+            case NOT_BORROWED_BY_USER:
+                return name + " has not borrowed this book or has already returned it.";
+            case ALREADY_RESERVED:
+                return name + " has already reserved this book.";
+            case ALREADY_QUEUED:
+                return name + " is already waiting for this book.";
+            case CURRENTLY_BORROWING:
+                return name + " is currently borrowing '" + title + "'.";
+            case NO_RESERVATION:
+                return "No reservation found for book '" + title + "'.";
+            default:
+                return rule.getDefaultMessage();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package command;
+
+import model.book.state.K2558859_OnHoldState;
+import model.reservation.K2558859_Reservation;
+import util.Output;
+import java.util.List;
+import java.util.function.Consumer;
+
+// K2558859_ExpireHoldsCommand - Concrete command that expires a batch of unclaimed holds
+// Each book is passed on to the next patron in its queue, or becomes available. A hold that fails to expire
+// does not stop the rest of the batch; it is handed to the failure action so it can be retried later.
+public class K2558859_ExpireHoldsCommand implements K2558859_Command {
+    private final List<K2558859_Reservation> holds;
+    private final Consumer<K2558859_Reservation> failureAction;
+    private int expiredCount;
+
+    // Constructor for K2558859_ExpireHoldsCommand
+    public K2558859_ExpireHoldsCommand(List<K2558859_Reservation> holds,
+                                       Consumer<K2558859_Reservation> failureAction) {
+        this.holds = holds;
+        this.failureAction = failureAction;
+    }
+
+    // Executes the expire holds command
+    @Override
+    public K2558859_CommandResult execute() {
+        expiredCount = 0;
+        for (K2558859_Reservation hold : holds) {
+            // Holds collected or cancelled since the sweep are skipped
+            try {
+                if (K2558859_OnHoldState.expireHold(hold)) {
+                    expiredCount++;
+                }
+            } catch (RuntimeException e) {
+                Output.error("Error: Could not expire hold " + hold.getReservationId() + ": " + e.getMessage());
+                failureAction.accept(hold);
+            }
+        }
+        if (expiredCount > 0) {
+            Output.info(expiredCount + " unclaimed hold(s) expired.");
+        }
+        return K2558859_CommandResult.applied();
+    }
+
+    public int getExpiredCount() {
+        return expiredCount;
+    }
+}
@@ -2,12 +2,15 @@ package command;
 
 import model.user.K2558859_User;
 import model.book.K2558859_Book;
-import exception.LibraryException;
+import model.reservation.K2558859_Reservation;
+import exception.RuleViolationException;
+import util.Output;
 
 // K2558859_ReserveCommand - Concrete command for reserving a book
 public class K2558859_ReserveCommand implements K2558859_Command {
     private K2558859_User user;
     private K2558859_Book book;
+    private K2558859_Reservation reservation; // Reservation created by the last successful execute
 
     // Constructor for K2558859_ReserveCommand
     public K2558859_ReserveCommand(K2558859_User user, K2558859_Book book) {
@@ -17,11 +20,37 @@ public class K2558859_ReserveCommand implements K2558859_Command {
 
     // Executes the reserve command
     @Override
-    public void execute() {
+    public K2558859_CommandResult execute() {
+        reservation = null;
         try {
             user.reserveBook(book);
-        } catch (LibraryException e) {
-            System.out.println("Error: " + e.getMessage());
+        } catch (RuleViolationException e) {
+            return K2558859_CommandResult.violation(e.getRule(), book, user).report();
         }
+        reservation = user.findReservation(book);
+        return K2558859_CommandResult.applied(reservation);
+    }
+
+    // Undoes the reservation by cancelling it
+    @Override
+    public boolean undo() {
+        if (reservation == null || user.findReservation(book) != reservation) {
+            Output.error("Error: The reservation of '" + book.getTitle() + "' can no longer be undone.");
+            return false;
+        }
+        try {
+            user.cancelReservation(book);
+        } catch (RuleViolationException e) {
+            K2558859_CommandResult.violation(e.getRule(), book, user).report();
+            return false;
+        }
+        reservation = null;
+        Output.info("Undone: reservation of '" + book.getTitle() + "' by " + user.getName() + ".");
+        return true;
+    }
+
+    @Override
+    public boolean isUndoable() {
+        return reservation != null;
     }
 }
@@ -2,12 +2,17 @@ package command;
 
 import model.user.K2558859_User;
 import model.book.K2558859_Book;
-import exception.LibraryException;
+import model.book.state.K2558859_BookState;
+import model.borrow.K2558859_BorrowRecord;
+import exception.RuleViolationException;
+import util.Output;
 
 // K2558859_ReturnCommand - Concrete command for returning a book
 public class K2558859_ReturnCommand implements K2558859_Command {
     private K2558859_User user;
     private K2558859_Book book;
+    private K2558859_BorrowRecord record;       // Loan closed by the last successful execute
+    private K2558859_BookState stateBeforeReturn;
 
     // Constructor for K2558859_ReturnCommand
     public K2558859_ReturnCommand(K2558859_User user, K2558859_Book book) {
@@ -17,11 +22,40 @@ public class K2558859_ReturnCommand implements K2558859_Command {
 
     // Executes the return command
     @Override
-    public void execute() {
+    public K2558859_CommandResult execute() {
+        K2558859_BorrowRecord openRecord = user.findOpenBorrowRecord(book);
+        K2558859_BookState stateBefore = book.getAvailabilityStatus();
+        record = null;
         try {
             user.returnBook(book);
-        } catch (LibraryException e) {
-            System.out.println("Error: " + e.getMessage());
+        } catch (RuleViolationException e) {
+            return K2558859_CommandResult.violation(e.getRule(), book, user).report();
         }
+        // A return that hands the book to the next patron has notified them and started their hold,
+        // so only returns that leave the book available can be undone
+        if (book.getAvailabilityStatus().getStateCode() == K2558859_BookState.AVAILABLE) {
+            record = openRecord;
+            stateBeforeReturn = stateBefore;
+        }
+        return K2558859_CommandResult.applied(openRecord);
+    }
+
+    // Undoes the return by reopening the loan and restoring the previous book state
+    @Override
+    public boolean undo() {
+        if (record == null || book.getAvailabilityStatus().getStateCode() != K2558859_BookState.AVAILABLE) {
+            Output.error("Error: The return of '" + book.getTitle() + "' can no longer be undone.");
+            return false;
+        }
+        record.setReturnDate(null);
+        book.setState(stateBeforeReturn);
+        record = null;
+        Output.info("Undone: return of '" + book.getTitle() + "' by " + user.getName() + ".");
+        return true;
+    }
+
+    @Override
+    public boolean isUndoable() {
+        return record != null;
     }
 }
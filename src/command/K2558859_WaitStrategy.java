@@ -0,0 +1,47 @@
+package command;
+
+import java.util.concurrent.locks.LockSupport;
+
+// K2558859_WaitStrategy - How threads of the command event loop wait for work or free slots
+public enum K2558859_WaitStrategy {
+
+    // Spins on the CPU - lowest latency, keeps one core fully busy while idle
+    BUSY_SPIN {
+        @Override
+        public void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+
+    // Spins briefly, then yields the CPU to other runnable threads
+    YIELD {
+        @Override
+        public void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+
+    // Spins, then yields, then parks the thread - lowest CPU usage, highest wake-up latency
+    PARK {
+        @Override
+        public void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES * 2) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 50_000L;
+
+    // Waits once; attempt counts consecutive unsuccessful tries and resets after progress
+    public abstract void idle(int attempt);
+}
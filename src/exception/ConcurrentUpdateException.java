@@ -0,0 +1,23 @@
+package exception;
+
+// Exception thrown when a record was changed by someone else since the caller read it
+public class ConcurrentUpdateException extends LibraryException {
+    private final long expectedVersion;
+    private final long actualVersion;
+
+    // Constructs a new ConcurrentUpdateException for a book whose version no longer matches
+    public ConcurrentUpdateException(String bookId, long expectedVersion, long actualVersion) {
+        super("Book with ID '" + bookId + "' was changed by someone else (version " + expectedVersion +
+              " expected, now " + actualVersion + "). Reload it and try again.");
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public long getActualVersion() {
+        return actualVersion;
+    }
+}
@@ -12,4 +12,10 @@ public class LibraryException extends Exception {
     public LibraryException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    // Constructs a LibraryException that can skip filling in its stack trace, for failures thrown
+    // often enough that capturing the stack would dominate their cost
+    protected LibraryException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, false, writableStackTrace);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package exception;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Exception signalling that a circulation rule rejected an operation (borrow limit, book unavailable, ...)
+// These are expected outcomes rather than faults, so each rule has one preallocated instance without a
+// stack trace; throwing it costs no allocation. Callers that need a detailed message build it from the rule.
+public class RuleViolationException extends LibraryException {
+
+    // The circulation rules an operation can break
+    public enum Rule {
+        BORROW_LIMIT_REACHED("The borrow limit has been reached."),
+        BATCH_EXCEEDS_LIMIT("The batch would take the user over the borrow limit."),
+        BOOK_BORROWED("The book is already borrowed."),
+        BOOK_RESERVED("The book is reserved by other patrons."),
+        BOOK_ON_HOLD("The book is on hold for another patron."),
+        BOOK_ALREADY_AVAILABLE("The book is already available and cannot be returned."),
+        BOOK_AVAILABLE_TO_BORROW("The book is available and should be borrowed instead of reserved."),
+        HOLD_NOT_COLLECTED("The book is on hold and has not been borrowed."),
+        NOT_BORROWED_BY_USER("The user has not borrowed the book or has already returned it."),
+        ALREADY_RESERVED("The user has already reserved the book."),
+        ALREADY_QUEUED("The user is already waiting for the book."),
+        CURRENTLY_BORROWING("The user is currently borrowing the book."),
+        NO_RESERVATION("The user has no reservation for the book.");
+
+        private final String defaultMessage;
+
+        Rule(String defaultMessage) {
+            this.defaultMessage = defaultMessage;
+        }
+
+        public String getDefaultMessage() {
+            return defaultMessage;
+        }
+    }
+
+    private static final Map<Rule, RuleViolationException> INSTANCES = new EnumMap<>(Rule.class);
+
+    static {
+        for (Rule rule : Rule.values()) {
+            INSTANCES.put(rule, new RuleViolationException(rule));
+        }
+    }
+
+    private final Rule rule;
+
+    private RuleViolationException(Rule rule) {
+        super(rule.getDefaultMessage(), null, false);
+        this.rule = rule;
+    }
+
+    // Gets the shared instance for a rule
+    public static RuleViolationException of(Rule rule) {
+        return INSTANCES.get(rule);
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+}
@@ -1,6 +1,6 @@
 package model.book;
 
-import model.user.K2558859_User;
+import model.book.state.K2558859_BookState;
 import java.util.List;
 
 // K2558859_BasicBook class - Concrete implementation of K2558859_Book
@@ -11,21 +11,32 @@ public class K2558859_BasicBook extends K2558859_Book {
         super(bookId, title, author, category, isbn);
     }
 
-    // Constructor for K2558859_BasicBook with metadata (used by K2558859_BookBuilder)
+    // Constructor for K2558859_BasicBook with metadata in display form
     public K2558859_BasicBook(String bookId, String title, String author, String category, String isbn, List<String> metadata) {
         super(bookId, title, author, category, isbn, metadata);
     }
 
-    // Returns the description of the book
+    // Constructor for K2558859_BasicBook with typed metadata (used by K2558859_BookBuilder)
+    public K2558859_BasicBook(String bookId, String title, String author, String category, String isbn,
+                              K2558859_BookMetadata metadata) {
+        super(bookId, title, author, category, isbn, metadata);
+    }
+
+    // Constructor for another physical copy of an existing title
+    public K2558859_BasicBook(String bookId, K2558859_Title titleRecord) {
+        super(bookId, titleRecord);
+    }
+
+    // Writes the description of the book
     @Override
-    public String getDescription() {
-        StringBuilder description = new StringBuilder();
+    protected void describe(StringBuilder description, K2558859_Title title, K2558859_BookState state,
+                            List<String> metadata) {
         description.append("Book ID: ").append(bookId)
-                   .append(", Title: ").append(title)
-                   .append(", Author: ").append(author)
-                   .append(", Category: ").append(category)
-                   .append(", ISBN: ").append(isbn)
-                   .append(", Status: ").append(availabilityStatus.getStateName());
+                   .append(", Title: ").append(title.getTitle())
+                   .append(", Author: ").append(title.getAuthor())
+                   .append(", Category: ").append(title.getCategory())
+                   .append(", ISBN: ").append(title.getIsbn())
+                   .append(", Status: ").append(state.getStateName());
         
         // Add metadata if present with better formatting
         if (!metadata.isEmpty()) {
@@ -34,7 +45,5 @@ public class K2558859_BasicBook extends K2558859_Book {
                 description.append("\n    • ").append(meta);
             }
         }
-        
-        return description.toString();
     }
 }
@@ -2,45 +2,63 @@ package model.book;
 
 import model.book.state.K2558859_BookState;
 import model.book.state.K2558859_AvailableState;
+import model.book.state.K2558859_BookStateTable;
 import model.borrow.K2558859_BorrowRecord;
+import model.reservation.K2558859_ReservationQueue;
 import model.user.K2558859_User;
+import service.K2558859_LibraryManagementSystem;
+import exception.RuleViolationException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.Random;
 
 // Abstract K2558859_Book class representing a book in the library system
 public abstract class K2558859_Book {
     // Fields
     protected String bookId;
-    protected String title;
-    protected String author;
-    protected String category;
-    protected String isbn;
+    protected volatile K2558859_Title titleRecord; // Bibliographic details shared with the other copies
     protected K2558859_BookState availabilityStatus;
     protected List<K2558859_BorrowRecord> borrowHistory;
-    protected List<String> metadata;
+    protected K2558859_ReservationQueue reservationQueue;
+    private boolean withdrawn;
+    private K2558859_BookStateTable stateTable; // Compact state column of the collection this copy belongs to
+    private int bookNumber = -1;
+    private volatile byte decorations; // K2558859_BookDecoration bits
+    private volatile long version; // Bumped on every change of the bibliographic details
+    private volatile DescriptionCache descriptionCache;
 
     // Constructors
     protected K2558859_Book(String bookId, String title, String author, String category, String isbn) {
-        this.bookId = bookId;
-        this.title = title;
-        this.author = author;
-        this.category = category;
-        this.isbn = isbn;
-        this.availabilityStatus = new K2558859_AvailableState();
-        this.borrowHistory = new ArrayList<>();
-        this.metadata = new ArrayList<>();
+        this(bookId, new K2558859_Title(title, author, category, isbn, K2558859_BookMetadata.EMPTY));
     }
 
     protected K2558859_Book(String bookId, String title, String author, String category, String isbn, List<String> metadata) {
+        this(bookId, new K2558859_Title(title, author, category, isbn, metadata));
+    }
+
+    protected K2558859_Book(String bookId, String title, String author, String category, String isbn,
+                            K2558859_BookMetadata metadata) {
+        this(bookId, new K2558859_Title(title, author, category, isbn, metadata));
+    }
+
+    // Creates a new physical copy of an existing title
+    protected K2558859_Book(String bookId, K2558859_Title titleRecord) {
+        this(bookId, titleRecord, true);
+    }
+
+    // Wrappers such as decorators pass countCopy = false so the wrapped copy is not counted twice;
+    // they delegate the history to the wrapped copy and get no list of their own
+    protected K2558859_Book(String bookId, K2558859_Title titleRecord, boolean countCopy) {
         this.bookId = bookId;
-        this.title = title;
-        this.author = author;
-        this.category = category;
-        this.isbn = isbn;
-        this.availabilityStatus = new K2558859_AvailableState();
-        this.borrowHistory = new ArrayList<>();
-        this.metadata = metadata != null ? new ArrayList<>(metadata) : new ArrayList<>();
+        this.titleRecord = titleRecord;
+        this.availabilityStatus = K2558859_AvailableState.INSTANCE;
+        this.borrowHistory = countCopy ? new ArrayList<>() : Collections.emptyList();
+        this.withdrawn = !countCopy;
+        if (countCopy) {
+            titleRecord.copyAdded(this, availabilityStatus);
+        }
     }
 
     // Getters
@@ -49,19 +67,28 @@ public abstract class K2558859_Book {
     }
 
     public String getTitle() {
-        return title;
+        return getTitleRecord().getTitle();
     }
 
     public String getAuthor() {
-        return author;
+        return getTitleRecord().getAuthor();
     }
 
     public String getCategory() {
-        return category;
+        return getTitleRecord().getCategory();
     }
 
     public String getIsbn() {
-        return isbn;
+        return getTitleRecord().getIsbn();
+    }
+
+    public K2558859_Title getTitleRecord() {
+        return titleRecord;
+    }
+
+    // Gets the version of the bibliographic details, for optimistic concurrency
+    public long getVersion() {
+        return version;
     }
 
     public K2558859_BookState getAvailabilityStatus() {
@@ -77,12 +104,122 @@ public abstract class K2558859_Book {
     }
 
     public List<String> getMetadata() {
-        return metadata;
+        return getTitleRecord().getMetadata();
+    }
+
+    public K2558859_BookMetadata getBookMetadata() {
+        return getTitleRecord().getBookMetadata();
+    }
+
+    // Gets the book's waitlist, creating it on first use
+    public synchronized K2558859_ReservationQueue getReservationQueue() {
+        if (reservationQueue == null) {
+            reservationQueue = new K2558859_ReservationQueue();
+        }
+        return reservationQueue;
     }
 
     // Setters
-    public void setState(K2558859_BookState state) {
+    public synchronized void setState(K2558859_BookState state) {
+        if (!withdrawn) {
+            titleRecord.copyChangedState(availabilityStatus, state);
+        }
         this.availabilityStatus = state;
+        if (stateTable != null) {
+            stateTable.set(bookNumber, state.getStateCode());
+        }
+    }
+
+    // Replaces the copy's bibliographic details in place, but only if they are still at expectedVersion;
+    // the copy keeps its state, history, waitlist and decorations, and anything referring to it stays valid
+    public synchronized boolean updateTitleRecord(K2558859_Title newTitleRecord, long expectedVersion) {
+        if (version != expectedVersion) {
+            return false;
+        }
+        if (!withdrawn) {
+            titleRecord.copyRemoved(this, availabilityStatus);
+            newTitleRecord.copyAdded(this, availabilityStatus);
+        }
+        titleRecord = newTitleRecord;
+        version = expectedVersion + 1;
+        return true;
+    }
+
+    // Registers the copy in a collection's state table and gives it a dense book number
+    public synchronized void attachStateTable(K2558859_BookStateTable table) {
+        detachStateTable();
+        this.stateTable = table;
+        this.bookNumber = table.allocate(availabilityStatus.getStateCode());
+    }
+
+    // Removes the copy from its state table
+    public synchronized void detachStateTable() {
+        if (stateTable != null) {
+            stateTable.release(bookNumber);
+            stateTable = null;
+            bookNumber = -1;
+        }
+    }
+
+    // Gets the dense number of this copy in its state table, or -1 if it has none
+    public synchronized int getBookNumber() {
+        return bookNumber;
+    }
+
+    // Takes the copy out of its title's counters once it leaves the collection
+    public synchronized void withdraw() {
+        if (!withdrawn) {
+            withdrawn = true;
+            titleRecord.copyRemoved(this, availabilityStatus);
+        }
+    }
+
+    public synchronized void setReservationQueue(K2558859_ReservationQueue reservationQueue) {
+        this.reservationQueue = reservationQueue;
+    }
+
+    // ----- Decorations -----
+
+    // Marks the copy with a decoration; returns false if it already had it
+    public boolean addDecoration(K2558859_BookDecoration decoration) {
+        return setDecorations((byte) (decorations | decoration.getMask()));
+    }
+
+    // Takes a decoration off the copy; returns false if it did not have it
+    public boolean removeDecoration(K2558859_BookDecoration decoration) {
+        return setDecorations((byte) (decorations & ~decoration.getMask()));
+    }
+
+    // Takes every decoration off the copy
+    public boolean clearDecorations() {
+        return setDecorations((byte) 0);
+    }
+
+    public boolean hasDecoration(K2558859_BookDecoration decoration) {
+        return (decorations & decoration.getMask()) != 0;
+    }
+
+    public byte getDecorationFlags() {
+        return decorations;
+    }
+
+    public Set<K2558859_BookDecoration> getDecorations() {
+        return K2558859_BookDecoration.fromFlags(decorations);
+    }
+
+    // Replaces the flag byte and lets the library re-index the copy's front-page listings
+    private boolean setDecorations(byte flags) {
+        synchronized (this) {
+            if (flags == decorations) {
+                return false;
+            }
+            decorations = flags;
+        }
+        K2558859_LibraryManagementSystem library = K2558859_LibraryManagementSystem.getInstance();
+        if (library != null) {
+            library.decorationsChanged(this);
+        }
+        return true;
     }
 
     // Public Methods
@@ -90,20 +227,58 @@ public abstract class K2558859_Book {
         this.borrowHistory.add(record);
     }
 
-    public void borrow(K2558859_User user) {
+    public void borrow(K2558859_User user) throws RuleViolationException {
         availabilityStatus.borrow(this, user);
     }
 
-    public void returnBook() {
+    public void returnBook() throws RuleViolationException {
         availabilityStatus.returnBook(this);
     }
 
-    public void reserve(K2558859_User user) {
+    public void reserve(K2558859_User user) throws RuleViolationException {
         availabilityStatus.reserve(this, user);
     }
 
+    // Gets the description; the cached text is rebuilt only after the state, decorations, details or metadata change
+    public String getDescription() {
+        K2558859_Title title = titleRecord;
+        K2558859_BookState state = availabilityStatus;
+        byte flags = decorations;
+        List<String> metadata = title.getMetadata();
+        DescriptionCache cache = descriptionCache;
+        if (cache == null || cache.title != title || cache.state != state || cache.flags != flags
+                || cache.metadata != metadata) {
+            StringBuilder description = new StringBuilder(128);
+            describe(description, title, state, metadata);
+            K2558859_BookDecoration.appendLabels(description, flags);
+            cache = new DescriptionCache(title, state, flags, metadata, description.toString());
+            descriptionCache = cache;
+        }
+        return cache.text;
+    }
+
     // Abstract Methods
-    public abstract String getDescription();
+    // Writes the undecorated description for the given details, state and metadata
+    protected abstract void describe(StringBuilder description, K2558859_Title title, K2558859_BookState state,
+                                     List<String> metadata);
+
+    // Description text together with the inputs it was built from
+    private static final class DescriptionCache {
+        private final K2558859_Title title;
+        private final K2558859_BookState state;
+        private final byte flags;
+        private final List<String> metadata;
+        private final String text;
+
+        private DescriptionCache(K2558859_Title title, K2558859_BookState state, byte flags, List<String> metadata,
+                                 String text) {
+            this.title = title;
+            this.state = state;
+            this.flags = flags;
+            this.metadata = metadata;
+            this.text = text;
+        }
+    }
 
     // Inner Builder Class
     public static class K2558859_BookBuilder {
@@ -112,7 +287,7 @@ public abstract class K2558859_Book {
         private String author;
         private String category;
         private String isbn;
-        private List<String> metadata;
+        private K2558859_BookMetadata.K2558859_BookMetadataBuilder metadata;
 
         public K2558859_BookBuilder(String bookId, String title, String author, String category, String isbn) {
             this.bookId = bookId;
@@ -120,31 +295,32 @@ public abstract class K2558859_Book {
             this.author = author;
             this.category = category;
             this.isbn = isbn;
-            this.metadata = new ArrayList<>();
+            this.metadata = new K2558859_BookMetadata.K2558859_BookMetadataBuilder();
         }
 
+        // Adds a free-form entry; "Tag: ", "Review: " and "Edition: " entries are stored as typed values
         public K2558859_BookBuilder addMetadata(String metadataItem) {
-            this.metadata.add(metadataItem);
+            this.metadata.addEntry(metadataItem);
             return this;
         }
 
         public K2558859_BookBuilder addReview(String review) {
-            this.metadata.add("Review: " + review);
+            this.metadata.addReview(review);
             return this;
         }
 
         public K2558859_BookBuilder addTag(String tag) {
-            this.metadata.add("Tag: " + tag);
+            this.metadata.addTag(tag);
             return this;
         }
 
         public K2558859_BookBuilder setEdition(String edition) {
-            this.metadata.add("Edition: " + edition);
+            this.metadata.setEdition(edition);
             return this;
         }
 
         public K2558859_BasicBook build() {
-            return new K2558859_BasicBook(bookId, title, author, category, isbn, metadata);
+            return new K2558859_BasicBook(bookId, title, author, category, isbn, metadata.build());
         }
     }
 }
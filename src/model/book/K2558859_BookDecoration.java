@@ -0,0 +1,57 @@
+package model.book;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// K2558859_BookDecoration - Decorations a copy can carry, stored as bits of a single flag byte on the book
+public enum K2558859_BookDecoration {
+    FEATURED("Featured", " [FEATURED]"),
+    RECOMMENDED("Recommended", " [RECOMMENDED]"),
+    SPECIAL_EDITION("Special Edition", " [SPECIAL EDITION]");
+
+    private static final K2558859_BookDecoration[] VALUES = values();
+
+    private final String displayName;
+    private final String label;
+    private final byte mask;
+
+    // Constructor for K2558859_BookDecoration
+    K2558859_BookDecoration(String displayName, String label) {
+        this.displayName = displayName;
+        this.label = label;
+        this.mask = (byte) (1 << ordinal());
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // Gets the tag appended to the book's description
+    public String getLabel() {
+        return label;
+    }
+
+    public byte getMask() {
+        return mask;
+    }
+
+    // Expands a flag byte into the set of decorations it holds
+    public static Set<K2558859_BookDecoration> fromFlags(byte flags) {
+        EnumSet<K2558859_BookDecoration> decorations = EnumSet.noneOf(K2558859_BookDecoration.class);
+        for (K2558859_BookDecoration decoration : VALUES) {
+            if ((flags & decoration.mask) != 0) {
+                decorations.add(decoration);
+            }
+        }
+        return decorations;
+    }
+
+    // Appends the label of every decoration in the flag byte, in declaration order
+    static void appendLabels(StringBuilder description, byte flags) {
+        for (K2558859_BookDecoration decoration : VALUES) {
+            if ((flags & decoration.mask) != 0) {
+                description.append(decoration.label);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package model.book;
+
+import util.StringDictionary;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// K2558859_BookMetadata - Immutable, typed metadata of a title: edition, reviews, tags and free-form notes
+// Tag and edition values are interned in a dictionary shared by every title, so a tag used by a million
+// books is stored once. Tags are kept trimmed and lower-case so they can be used directly as index keys.
+public final class K2558859_BookMetadata {
+    public static final String EDITION_PREFIX = "Edition: ";
+    public static final String REVIEW_PREFIX = "Review: ";
+    public static final String TAG_PREFIX = "Tag: ";
+
+    private static final StringDictionary VALUES = new StringDictionary();
+
+    public static final K2558859_BookMetadata EMPTY = new K2558859_BookMetadata(
+        null, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+    private final String edition;
+    private final List<String> reviews;
+    private final List<String> tags;
+    private final List<String> notes;
+    private final List<String> entries; // Display form, built once
+
+    private K2558859_BookMetadata(String edition, List<String> reviews, List<String> tags, List<String> notes) {
+        this.edition = edition;
+        this.reviews = reviews;
+        this.tags = tags;
+        this.notes = notes;
+        this.entries = buildEntries();
+    }
+
+    // Parses display entries such as "Tag: classic" back into typed metadata
+    public static K2558859_BookMetadata fromEntries(List<String> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return EMPTY;
+        }
+        K2558859_BookMetadataBuilder builder = new K2558859_BookMetadataBuilder();
+        for (String entry : entries) {
+            builder.addEntry(entry);
+        }
+        return builder.build();
+    }
+
+    // Normalises a tag to its index form, or returns null for a blank tag
+    public static String normalizeTag(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        String normalized = tag.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    // Gets the number of distinct tag and edition values stored in the shared dictionary
+    public static int getDictionarySize() {
+        return VALUES.size();
+    }
+
+    // Getters
+    public String getEdition() {
+        return edition;
+    }
+
+    public List<String> getReviews() {
+        return reviews;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public List<String> getNotes() {
+        return notes;
+    }
+
+    public boolean hasTag(String tag) {
+        String normalized = normalizeTag(tag);
+        return normalized != null && tags.contains(normalized);
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    // Gets the metadata as display entries ("Edition: ...", "Review: ...", "Tag: ...", then notes)
+    public List<String> asEntries() {
+        return entries;
+    }
+
+    // Returns a copy with one more display entry, parsed the same way as the builder parses it
+    public K2558859_BookMetadata withEntry(String entry) {
+        return toBuilder().addEntry(entry).build();
+    }
+
+    // Gets a builder pre-filled with this metadata
+    public K2558859_BookMetadataBuilder toBuilder() {
+        K2558859_BookMetadataBuilder builder = new K2558859_BookMetadataBuilder();
+        builder.setEdition(edition);
+        reviews.forEach(builder::addReview);
+        tags.forEach(builder::addTag);
+        notes.forEach(builder::addNote);
+        return builder;
+    }
+
+    private List<String> buildEntries() {
+        List<String> result = new ArrayList<>();
+        if (edition != null) {
+            result.add(EDITION_PREFIX + edition);
+        }
+        for (String review : reviews) {
+            result.add(REVIEW_PREFIX + review);
+        }
+        for (String tag : tags) {
+            result.add(TAG_PREFIX + tag);
+        }
+        result.addAll(notes);
+        return result.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(result);
+    }
+
+    // Builder for K2558859_BookMetadata
+    public static class K2558859_BookMetadataBuilder {
+        private String edition;
+        private final List<String> reviews = new ArrayList<>();
+        private final Set<String> tags = new LinkedHashSet<>();
+        private final List<String> notes = new ArrayList<>();
+
+        public K2558859_BookMetadataBuilder setEdition(String edition) {
+            this.edition = edition == null || edition.trim().isEmpty() ? null : VALUES.intern(edition.trim());
+            return this;
+        }
+
+        public K2558859_BookMetadataBuilder addReview(String review) {
+            if (review != null && !review.trim().isEmpty()) {
+                reviews.add(review.trim());
+            }
+            return this;
+        }
+
+        public K2558859_BookMetadataBuilder addTag(String tag) {
+            String normalized = normalizeTag(tag);
+            if (normalized != null) {
+                tags.add(VALUES.intern(normalized));
+            }
+            return this;
+        }
+
+        public K2558859_BookMetadataBuilder addNote(String note) {
+            if (note != null && !note.trim().isEmpty()) {
+                notes.add(note);
+            }
+            return this;
+        }
+
+        // Adds a display entry, recognising the edition, review and tag prefixes
+        public K2558859_BookMetadataBuilder addEntry(String entry) {
+            if (entry == null) {
+                return this;
+            }
+            if (entry.startsWith(EDITION_PREFIX)) {
+                return setEdition(entry.substring(EDITION_PREFIX.length()));
+            }
+            if (entry.startsWith(REVIEW_PREFIX)) {
+                return addReview(entry.substring(REVIEW_PREFIX.length()));
+            }
+            if (entry.startsWith(TAG_PREFIX)) {
+                return addTag(entry.substring(TAG_PREFIX.length()));
+            }
+            return addNote(entry);
+        }
+
+        public K2558859_BookMetadata build() {
+            if (edition == null && reviews.isEmpty() && tags.isEmpty() && notes.isEmpty()) {
+                return EMPTY;
+            }
+            return new K2558859_BookMetadata(edition, immutable(reviews), immutable(new ArrayList<>(tags)), immutable(notes));
+        }
+
+        private static List<String> immutable(List<String> values) {
+            return values.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(values));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package model.book;
+
+import model.book.state.K2558859_BookState;
+import util.StringDictionary;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// K2558859_Title - Bibliographic record shared by every physical copy of the same book
+// Title, author, category, ISBN and metadata are stored once however many copies there are.
+// The title also counts its copies per state, so "is any copy available" needs no scan, and keeps a list of
+// its copies so a change to the record only touches those copies.
+// Authors and categories repeat across many titles, so they are kept as codes into shared dictionaries.
+public class K2558859_Title {
+    private static final StringDictionary AUTHORS = new StringDictionary();
+    private static final StringDictionary CATEGORIES = new StringDictionary();
+    private static final int NO_VALUE = -1;
+
+    private final String title;
+    private final int authorCode;
+    private final int categoryCode;
+    private final String isbn;
+    private volatile K2558859_BookMetadata metadata; // Immutable; replaced as a whole when an entry is added
+
+    // Availability counters indexed by state code, kept up to date by the copies on every state change
+    private final AtomicInteger copyCount = new AtomicInteger();
+    private final AtomicIntegerArray countsByState = new AtomicIntegerArray(K2558859_BookState.STATE_COUNT);
+    private final List<K2558859_Book> copies = new ArrayList<>(1); // Guarded by this
+
+    // Constructor for K2558859_Title
+    public K2558859_Title(String title, String author, String category, String isbn, K2558859_BookMetadata metadata) {
+        this.title = title;
+        this.authorCode = author != null ? AUTHORS.encode(author) : NO_VALUE;
+        this.categoryCode = category != null ? CATEGORIES.encode(category) : NO_VALUE;
+        this.isbn = isbn;
+        this.metadata = metadata != null ? metadata : K2558859_BookMetadata.EMPTY;
+    }
+
+    // Constructor taking metadata in display form ("Tag: ...", "Review: ...", "Edition: ...")
+    public K2558859_Title(String title, String author, String category, String isbn, List<String> metadata) {
+        this(title, author, category, isbn, K2558859_BookMetadata.fromEntries(metadata));
+    }
+
+    // Getters
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return authorCode != NO_VALUE ? AUTHORS.decode(authorCode) : null;
+    }
+
+    public String getCategory() {
+        return categoryCode != NO_VALUE ? CATEGORIES.decode(categoryCode) : null;
+    }
+
+    // Dictionary codes; equal authors or categories have equal codes, -1 means no value
+    public int getAuthorCode() {
+        return authorCode;
+    }
+
+    public int getCategoryCode() {
+        return categoryCode;
+    }
+
+    // Gets the number of distinct authors and categories across all titles
+    public static int getDistinctAuthorCount() {
+        return AUTHORS.size();
+    }
+
+    public static int getDistinctCategoryCount() {
+        return CATEGORIES.size();
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    // Gets the metadata in display form; the same list instance is returned until the metadata changes
+    public List<String> getMetadata() {
+        return metadata.asEntries();
+    }
+
+    public K2558859_BookMetadata getBookMetadata() {
+        return metadata;
+    }
+
+    // Adds a metadata entry; new metadata is published so cached descriptions notice the change
+    public synchronized void addMetadata(String metadataItem) {
+        metadata = metadata.withEntry(metadataItem);
+    }
+
+    // ----- Availability -----
+
+    public boolean isAnyCopyAvailable() {
+        return countsByState.get(K2558859_BookState.AVAILABLE) > 0;
+    }
+
+    public int getCopyCount() {
+        return copyCount.get();
+    }
+
+    public int getAvailableCount() {
+        return countsByState.get(K2558859_BookState.AVAILABLE);
+    }
+
+    public int getBorrowedCount() {
+        return countsByState.get(K2558859_BookState.BORROWED);
+    }
+
+    public int getReservedCount() {
+        return countsByState.get(K2558859_BookState.RESERVED);
+    }
+
+    public int getOnHoldCount() {
+        return countsByState.get(K2558859_BookState.ON_HOLD);
+    }
+
+    // Gets the copies that currently share this record
+    public synchronized List<K2558859_Book> getCopies() {
+        return new ArrayList<>(copies);
+    }
+
+    // Counts a new copy in its initial state
+    void copyAdded(K2558859_Book copy, K2558859_BookState state) {
+        synchronized (this) {
+            copies.add(copy);
+        }
+        copyCount.incrementAndGet();
+        countsByState.incrementAndGet(state.getStateCode());
+    }
+
+    // Stops counting a copy that left the collection or moved to another record
+    void copyRemoved(K2558859_Book copy, K2558859_BookState state) {
+        synchronized (this) {
+            for (int i = copies.size() - 1; i >= 0; i--) {
+                if (copies.get(i) == copy) {
+                    copies.remove(i);
+                    break;
+                }
+            }
+        }
+        copyCount.decrementAndGet();
+        countsByState.decrementAndGet(state.getStateCode());
+    }
+
+    // Moves a copy from one state counter to another
+    void copyChangedState(K2558859_BookState from, K2558859_BookState to) {
+        if (from.getStateCode() != to.getStateCode()) {
+            countsByState.decrementAndGet(from.getStateCode());
+            countsByState.incrementAndGet(to.getStateCode());
+        }
+    }
+}
@@ -1,50 +1,67 @@
 package model.book.decorator;
 
 import model.book.K2558859_Book;
+import model.book.K2558859_BookDecoration;
+import model.book.K2558859_Title;
 import model.book.state.K2558859_BookState;
+import model.book.state.K2558859_BookStateTable;
 import model.borrow.K2558859_BorrowRecord;
+import model.reservation.K2558859_ReservationQueue;
 import model.user.K2558859_User;
+import exception.RuleViolationException;
 import java.util.List;
+import java.util.Set;
 
 // Abstract K2558859_BookDecorator class for Decorator Pattern
+// Decorators are thin wrappers: the decoration itself is a flag on the wrapped copy, so the copy keeps it
+// (and shows it in its cached description) however many wrappers are stacked on top or thrown away.
 public abstract class K2558859_BookDecorator extends K2558859_Book {
     protected K2558859_Book decoratedBook;
 
     // Constructor for K2558859_BookDecorator
     public K2558859_BookDecorator(K2558859_Book decoratedBook) {
-        super(decoratedBook.getBookId(), 
-              decoratedBook.getTitle(), 
-              decoratedBook.getAuthor(), 
-              decoratedBook.getCategory(), 
-              decoratedBook.getIsbn(),
-              decoratedBook.getMetadata());
+        // Shares the wrapped copy's title record without counting another copy
+        super(decoratedBook.getBookId(), decoratedBook.getTitleRecord(), false);
         this.decoratedBook = decoratedBook;
     }
 
+    // Constructor that marks the wrapped copy with the decoration
+    protected K2558859_BookDecorator(K2558859_Book decoratedBook, K2558859_BookDecoration decoration) {
+        this(decoratedBook);
+        decoratedBook.addDecoration(decoration);
+    }
+
     // Delegates borrow operation to the decorated book
     @Override
-    public void borrow(K2558859_User user) {
+    public void borrow(K2558859_User user) throws RuleViolationException {
         decoratedBook.borrow(user);
     }
 
     // Delegates return operation to the decorated book
     @Override
-    public void returnBook() {
+    public void returnBook() throws RuleViolationException {
         decoratedBook.returnBook();
     }
 
     // Delegates reserve operation to the decorated book
     @Override
-    public void reserve(K2558859_User user) {
+    public void reserve(K2558859_User user) throws RuleViolationException {
         decoratedBook.reserve(user);
     }
 
-    // Gets the description from the decorated book
+    // Gets the description from the decorated book, which already carries every decoration label
     @Override
     public String getDescription() {
         return decoratedBook.getDescription();
     }
 
+    // Never used: getDescription is delegated as a whole
+    @Override
+    protected void describe(StringBuilder description, K2558859_Title title, K2558859_BookState state,
+                            List<String> metadata) {
+        description.append(decoratedBook.getDescription());
+    }
+
     // Override getters to delegate to decorated book for accurate state
     @Override
     public K2558859_BookState getAvailabilityStatus() {
@@ -71,8 +88,84 @@ public abstract class K2558859_BookDecorator extends K2558859_Book {
         return decoratedBook.getBorrowHistoryInternal();
     }
 
+    // The wrapped copy's details can be replaced in place, so they are always read through it
+    @Override
+    public K2558859_Title getTitleRecord() {
+        return decoratedBook.getTitleRecord();
+    }
+
+    @Override
+    public long getVersion() {
+        return decoratedBook.getVersion();
+    }
+
+    @Override
+    public boolean updateTitleRecord(K2558859_Title newTitleRecord, long expectedVersion) {
+        return decoratedBook.updateTitleRecord(newTitleRecord, expectedVersion);
+    }
+
     @Override
     public List<String> getMetadata() {
         return decoratedBook.getMetadata();
     }
+
+    @Override
+    public K2558859_ReservationQueue getReservationQueue() {
+        return decoratedBook.getReservationQueue();
+    }
+
+    @Override
+    public void setReservationQueue(K2558859_ReservationQueue reservationQueue) {
+        decoratedBook.setReservationQueue(reservationQueue);
+    }
+
+    @Override
+    public void withdraw() {
+        decoratedBook.withdraw();
+    }
+
+    @Override
+    public void attachStateTable(K2558859_BookStateTable table) {
+        decoratedBook.attachStateTable(table);
+    }
+
+    @Override
+    public void detachStateTable() {
+        decoratedBook.detachStateTable();
+    }
+
+    @Override
+    public int getBookNumber() {
+        return decoratedBook.getBookNumber();
+    }
+
+    @Override
+    public boolean addDecoration(K2558859_BookDecoration decoration) {
+        return decoratedBook.addDecoration(decoration);
+    }
+
+    @Override
+    public boolean removeDecoration(K2558859_BookDecoration decoration) {
+        return decoratedBook.removeDecoration(decoration);
+    }
+
+    @Override
+    public boolean clearDecorations() {
+        return decoratedBook.clearDecorations();
+    }
+
+    @Override
+    public boolean hasDecoration(K2558859_BookDecoration decoration) {
+        return decoratedBook.hasDecoration(decoration);
+    }
+
+    @Override
+    public byte getDecorationFlags() {
+        return decoratedBook.getDecorationFlags();
+    }
+
+    @Override
+    public Set<K2558859_BookDecoration> getDecorations() {
+        return decoratedBook.getDecorations();
+    }
 }
@@ -1,18 +1,13 @@
 package model.book.decorator;
 
 import model.book.K2558859_Book;
+import model.book.K2558859_BookDecoration;
 
 // K2558859_FeaturedDecorator - Concrete decorator for marking books as "Featured"
 public class K2558859_FeaturedDecorator extends K2558859_BookDecorator {
 
-    // Constructor for K2558859_FeaturedDecorator
+    // Constructor for K2558859_FeaturedDecorator; the "Featured" tag is added to the book's description
     public K2558859_FeaturedDecorator(K2558859_Book decoratedBook) {
-        super(decoratedBook);
-    }
-
-    // Enhances the book description with a "Featured" tag
-    @Override
-    public String getDescription() {
-        return decoratedBook.getDescription() + " [FEATURED]";
+        super(decoratedBook, K2558859_BookDecoration.FEATURED);
     }
 }
@@ -1,18 +1,13 @@
 package model.book.decorator;
 
 import model.book.K2558859_Book;
+import model.book.K2558859_BookDecoration;
 
 // K2558859_SpecialEditionDecorator - Concrete decorator for marking books as "Special Edition"
 public class K2558859_SpecialEditionDecorator extends K2558859_BookDecorator {
 
-    // Constructor for K2558859_SpecialEditionDecorator
+    // Constructor for K2558859_SpecialEditionDecorator; the "Special Edition" tag is added to the book's description
     public K2558859_SpecialEditionDecorator(K2558859_Book decoratedBook) {
-        super(decoratedBook);
-    }
-
-    // Enhances the book description with a "Special Edition" tag
-    @Override
-    public String getDescription() {
-        return decoratedBook.getDescription() + " [SPECIAL EDITION]";
+        super(decoratedBook, K2558859_BookDecoration.SPECIAL_EDITION);
     }
 }
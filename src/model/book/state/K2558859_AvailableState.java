@@ -3,22 +3,34 @@ package model.book.state;
 import model.book.K2558859_Book;
 import model.user.K2558859_User;
 import model.borrow.K2558859_BorrowRecord;
+import exception.RuleViolationException;
+import util.Output;
 import java.time.LocalDate;
-import java.util.UUID;
 
 // K2558859_AvailableState - Concrete state representing an available book
 public class K2558859_AvailableState implements K2558859_BookState {
+    // Shared instance (Flyweight) - states hold no per-book data
+    public static final K2558859_AvailableState INSTANCE = new K2558859_AvailableState();
+
+    private K2558859_AvailableState() {
+    }
 
     // Allows borrowing when the book is available
     @Override
     public void borrow(K2558859_Book book, K2558859_User user) {
+        checkout(book, user);
+        Output.info("\nBook '" + book.getTitle() + "' has been borrowed by " + user.getName());
+    }
+
+    // Creates the loan for an available book and moves it to K2558859_BorrowedState without any output
+    public static K2558859_BorrowRecord checkout(K2558859_Book book, K2558859_User user) {
         // Calculate due date based on user type
         LocalDate borrowDate = LocalDate.now();
         LocalDate dueDate = borrowDate.plusDays(user.getBorrowPeriodInDays());
         
         // Create borrow record
         K2558859_BorrowRecord record = new K2558859_BorrowRecord(
-            "BR-" + UUID.randomUUID().toString().substring(0, 8), // Use UUID for unique IDs
+            service.K2558859_LibraryManagementSystem.nextId("BR"), // Time-ordered unique ID
             book,
             user,
             borrowDate,
@@ -35,24 +47,41 @@ public class K2558859_AvailableState implements K2558859_BookState {
         }
         
         // Transition to K2558859_BorrowedState
-        book.setState(new K2558859_BorrowedState());
-        System.out.println("\nBook '" + book.getTitle() + "' has been borrowed by " + user.getName());
+        book.setState(K2558859_BorrowedState.INSTANCE);
+        return record;
+    }
+
+    // Reverts a checkout made by checkout(), removing the loan everywhere and making the book available again
+    public static void revertCheckout(K2558859_BorrowRecord record) {
+        K2558859_Book book = record.getBook();
+        record.getUser().removeBorrowRecord(record);
+        book.getBorrowHistoryInternal().remove(record);
+        service.K2558859_LibraryManagementSystem library = service.K2558859_LibraryManagementSystem.getInstance();
+        if (library != null) {
+            library.removeBorrowRecord(record);
+        }
+        book.setState(K2558859_AvailableState.INSTANCE);
     }
 
     // Cannot return a book that is already available
     @Override
-    public void returnBook(K2558859_Book book) {
-        System.out.println("Error: Book '" + book.getTitle() + "' is already available and cannot be returned.");
+    public void returnBook(K2558859_Book book) throws RuleViolationException {
+        throw RuleViolationException.of(RuleViolationException.Rule.BOOK_ALREADY_AVAILABLE);
     }
 
     // Cannot reserve a book that is available - it should be borrowed directly
     @Override
-    public void reserve(K2558859_Book book, K2558859_User user) {
-        System.out.println("Error: Book '" + book.getTitle() + "' is available. Please borrow it directly instead of reserving.");
+    public void reserve(K2558859_Book book, K2558859_User user) throws RuleViolationException {
+        throw RuleViolationException.of(RuleViolationException.Rule.BOOK_AVAILABLE_TO_BORROW);
     }
 
     @Override
     public String getStateName() {
         return "Available";
     }
+
+    @Override
+    public byte getStateCode() {
+        return AVAILABLE;
+    }
 }
@@ -2,19 +2,47 @@ package model.book.state;
 
 import model.book.K2558859_Book;
 import model.user.K2558859_User;
+import exception.RuleViolationException;
 
 // K2558859_BookState interface for State Pattern
+// States are stateless, so each has one shared instance (Flyweight); a state is identified by a
+// one-byte code so checks are integer compares and state tables can store one byte per book.
 public interface K2558859_BookState {
+    byte AVAILABLE = 0;
+    byte BORROWED = 1;
+    byte RESERVED = 2;
+    byte ON_HOLD = 3;
+    int STATE_COUNT = 4;
     
-    // Handles the borrow operation based on the current state
-    void borrow(K2558859_Book book, K2558859_User user);
+
+    // Handles the borrow operation based on the current state; throws the shared violation if the state forbids it
+    void borrow(K2558859_Book book, K2558859_User user) throws RuleViolationException;
     
     // Handles the return operation based on the current state
-    void returnBook(K2558859_Book book);
+    void returnBook(K2558859_Book book) throws RuleViolationException;
     
     // Handles the reserve operation based on the current state
-    void reserve(K2558859_Book book, K2558859_User user);
+    void reserve(K2558859_Book book, K2558859_User user) throws RuleViolationException;
     
     // Returns the name of the current state
     String getStateName();
+    
+    // Returns the compact code of the current state (AVAILABLE, BORROWED, RESERVED or ON_HOLD)
+    byte getStateCode();
+    
+    // Gets the shared state instance for a code
+    static K2558859_BookState forCode(byte code) {
+        switch (code) {
+            case AVAILABLE:
+                return K2558859_AvailableState.INSTANCE;
+            case BORROWED:
+                return K2558859_BorrowedState.INSTANCE;
+            case RESERVED:
+                return K2558859_ReservedState.INSTANCE;
+            case ON_HOLD:
+                return K2558859_OnHoldState.INSTANCE;
+            default:
+                throw new IllegalArgumentException("Unknown book state code: " + code);
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package model.book.state;
+
+import java.util.Arrays;
+
+// K2558859_BookStateTable - Compact column of book states: one byte per book, indexed by a dense book number
+// Counting books per state is a tight scan over a byte array instead of a walk over book objects.
+// Numbers of removed books are recycled, so the column stays as long as the largest collection seen.
+public class K2558859_BookStateTable {
+    public static final byte FREE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] states = new byte[INITIAL_CAPACITY];
+    private int highWaterMark;
+    private int[] freeNumbers = new int[16];
+    private int freeCount;
+    private int liveCount;
+
+    // Assigns a dense number to a book and records its state
+    public synchronized int allocate(byte stateCode) {
+        int number;
+        if (freeCount > 0) {
+            number = freeNumbers[--freeCount];
+        } else {
+            if (highWaterMark == states.length) {
+                states = Arrays.copyOf(states, states.length * 2);
+            }
+            number = highWaterMark++;
+        }
+        states[number] = stateCode;
+        liveCount++;
+        return number;
+    }
+
+    // Frees a book's number for reuse
+    public synchronized void release(int number) {
+        if (states[number] == FREE) {
+            return;
+        }
+        states[number] = FREE;
+        if (freeCount == freeNumbers.length) {
+            freeNumbers = Arrays.copyOf(freeNumbers, freeNumbers.length * 2);
+        }
+        freeNumbers[freeCount++] = number;
+        liveCount--;
+    }
+
+    // Records a book's new state
+    public synchronized void set(int number, byte stateCode) {
+        states[number] = stateCode;
+    }
+
+    public synchronized byte get(int number) {
+        return states[number];
+    }
+
+    // Counts the books in one state
+    public synchronized int count(byte stateCode) {
+        int count = 0;
+        for (int i = 0; i < highWaterMark; i++) {
+            if (states[i] == stateCode) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Counts the books in every state in one pass; the result is indexed by state code
+    public synchronized int[] countAll() {
+        int[] counts = new int[K2558859_BookState.STATE_COUNT];
+        for (int i = 0; i < highWaterMark; i++) {
+            byte code = states[i];
+            if (code != FREE) {
+                counts[code]++;
+            }
+        }
+        return counts;
+    }
+
+    public synchronized int size() {
+        return liveCount;
+    }
+}
@@ -4,34 +4,55 @@ import model.book.K2558859_Book;
 import model.user.K2558859_User;
 import model.borrow.K2558859_BorrowRecord;
 import model.reservation.K2558859_Reservation;
+import exception.RuleViolationException;
 import service.K2558859_LibraryManagementSystem;
+import util.Output;
 import java.time.LocalDate;
 import java.util.List;
 
 // K2558859_BorrowedState - Concrete state representing a borrowed book
 public class K2558859_BorrowedState implements K2558859_BookState {
+    // Shared instance (Flyweight) - states hold no per-book data
+    public static final K2558859_BorrowedState INSTANCE = new K2558859_BorrowedState();
+
+    private K2558859_BorrowedState() {
+    }
 
     // Cannot borrow a book that is already borrowed
     @Override
-    public void borrow(K2558859_Book book, K2558859_User user) {
-        System.out.println("Error: Book '" + book.getTitle() + "' is already borrowed and unavailable.");
+    public void borrow(K2558859_Book book, K2558859_User user) throws RuleViolationException {
+        throw RuleViolationException.of(RuleViolationException.Rule.BOOK_BORROWED);
     }
 
     // Allows returning when the book is borrowed
     @Override
     public void returnBook(K2558859_Book book) {
         // Transition to K2558859_AvailableState
-        book.setState(new K2558859_AvailableState());
+        book.setState(K2558859_AvailableState.INSTANCE);
     }
 
-    // Allows reserving a borrowed book
+    // Allows reserving a borrowed book; the user becomes the first patron in its queue
     @Override
-    public void reserve(K2558859_Book book, K2558859_User user) {
+    public void reserve(K2558859_Book book, K2558859_User user) throws RuleViolationException {
+        enqueueReservation(book, user);
+    }
+
+    // Creates a reservation at the end of the book's queue and marks the borrowed book as reserved
+    static void enqueueReservation(K2558859_Book book, K2558859_User user) throws RuleViolationException {
+        if (user.findOpenBorrowRecord(book) != null) {
+            throw RuleViolationException.of(RuleViolationException.Rule.CURRENTLY_BORROWING);
+        }
+        
         // Auto-generate reservation ID
-        String reservationId = "RES-" + System.currentTimeMillis();
+        String reservationId = K2558859_LibraryManagementSystem.nextId("RES");
         K2558859_Reservation reservation = new K2558859_Reservation(
             reservationId, book, user, LocalDate.now());
         
+        try {
+            book.getReservationQueue().enqueue(reservation);
+        } catch (IllegalStateException e) {
+            throw RuleViolationException.of(RuleViolationException.Rule.ALREADY_QUEUED);
+        }
         user.addReservation(reservation);
         
         // Add to library system's reservations list
@@ -40,13 +61,22 @@ public class K2558859_BorrowedState implements K2558859_BookState {
             library.addReservation(reservation);
         }
         
-        // Transition to K2558859_ReservedState
-        book.setState(new K2558859_ReservedState());
-        System.out.println("Book '" + book.getTitle() + "' reserved successfully for " + user.getName() + ".");
+        // A borrowed book with a waiting patron becomes reserved; a book on hold stays on hold
+        if (book.getAvailabilityStatus() instanceof K2558859_BorrowedState) {
+            book.setState(K2558859_ReservedState.INSTANCE);
+        }
+        int position = book.getReservationQueue().getPosition(user.getUserId());
+        Output.info("Book '" + book.getTitle() + "' reserved successfully for " + user.getName() +
+                         " (position " + position + " in queue).");
     }
 
     @Override
     public String getStateName() {
         return "Borrowed";
     }
+
+    @Override
+    public byte getStateCode() {
+        return BORROWED;
+    }
 }
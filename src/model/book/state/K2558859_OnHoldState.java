@@ -0,0 +1,134 @@
+package model.book.state;
+
+import model.book.K2558859_Book;
+import model.user.K2558859_User;
+import model.reservation.K2558859_Reservation;
+import model.reservation.K2558859_ReservationQueue;
+import exception.RuleViolationException;
+import service.K2558859_LibraryManagementSystem;
+import util.Output;
+
+// K2558859_OnHoldState - Concrete state representing a returned book set aside for the next patron in the queue
+public class K2558859_OnHoldState implements K2558859_BookState {
+    // Shared instance (Flyweight) - states hold no per-book data
+    public static final K2558859_OnHoldState INSTANCE = new K2558859_OnHoldState();
+
+    private K2558859_OnHoldState() {
+    }
+
+    // Only the patron the book is held for can borrow it
+    @Override
+    public void borrow(K2558859_Book book, K2558859_User user) throws RuleViolationException {
+        K2558859_ReservationQueue queue = book.getReservationQueue();
+        K2558859_Reservation hold = queue.getHolder();
+        if (hold == null || !hold.getUser().getUserId().equals(user.getUserId())) {
+            throw RuleViolationException.of(RuleViolationException.Rule.BOOK_ON_HOLD);
+        }
+
+        // The reservation is fulfilled by this loan
+        queue.setHolder(null);
+        K2558859_LibraryManagementSystem library = K2558859_LibraryManagementSystem.getInstance();
+        if (library != null) {
+            library.holdEnded(hold);
+        }
+        removeReservation(hold);
+        K2558859_AvailableState.checkout(book, user);
+        if (!queue.isEmpty()) {
+            book.setState(K2558859_ReservedState.INSTANCE);
+        }
+        Output.info("\nBook '" + book.getTitle() + "' on hold has been collected by " + user.getName());
+    }
+
+    // Cannot return a book that is waiting on the hold shelf
+    @Override
+    public void returnBook(K2558859_Book book) throws RuleViolationException {
+        throw RuleViolationException.of(RuleViolationException.Rule.HOLD_NOT_COLLECTED);
+    }
+
+    // Adds the user to the end of the book's reservation queue
+    @Override
+    public void reserve(K2558859_Book book, K2558859_User user) throws RuleViolationException {
+        K2558859_BorrowedState.enqueueReservation(book, user);
+    }
+
+    @Override
+    public String getStateName() {
+        return "On Hold";
+    }
+
+    @Override
+    public byte getStateCode() {
+        return ON_HOLD;
+    }
+
+    // Gives the book to the next patron in the queue and notifies them, or makes it available if nobody is waiting
+    public static void handOff(K2558859_Book book) {
+        K2558859_Reservation next = placeHold(book);
+        if (next != null) {
+            next.notifyUser();
+        }
+    }
+
+    // Sets the book aside for the next patron in the queue without notifying them yet; returns their reservation,
+    // or null if nobody was waiting and the book became available
+    public static K2558859_Reservation placeHold(K2558859_Book book) {
+        K2558859_ReservationQueue queue = book.getReservationQueue();
+        K2558859_LibraryManagementSystem library = K2558859_LibraryManagementSystem.getInstance();
+        K2558859_Reservation previous = queue.getHolder();
+        if (previous != null && library != null) {
+            library.holdEnded(previous);
+        }
+        K2558859_Reservation next = queue.poll();
+        queue.setHolder(next);
+        if (next == null) {
+            book.setState(K2558859_AvailableState.INSTANCE);
+            return null;
+        }
+        book.setState(K2558859_OnHoldState.INSTANCE);
+        if (library != null) {
+            library.holdPlaced(next);
+        }
+        return next;
+    }
+
+    // Takes back a placeHold made when a reserved book was returned: the patron goes back to the head of the
+    // queue and the book is reserved again (hold is null if the book had become available)
+    public static void revertPlaceHold(K2558859_Book book, K2558859_Reservation hold) {
+        K2558859_ReservationQueue queue = book.getReservationQueue();
+        queue.setHolder(null);
+        if (hold != null) {
+            K2558859_LibraryManagementSystem library = K2558859_LibraryManagementSystem.getInstance();
+            if (library != null) {
+                library.holdEnded(hold);
+            }
+            hold.clearHold();
+            queue.restore(hold);
+        }
+        book.setState(K2558859_ReservedState.INSTANCE);
+    }
+
+    // Expires an unclaimed hold and passes the book on; returns false if the hold was already collected or cancelled
+    public static boolean expireHold(K2558859_Reservation reservation) {
+        K2558859_Book book = reservation.getBook();
+        if (book.getReservationQueue().getHolder() != reservation) {
+            return false;
+        }
+        removeReservation(reservation);
+        K2558859_LibraryManagementSystem library = K2558859_LibraryManagementSystem.getInstance();
+        String text = "Your hold on '" + book.getTitle() + "' has expired.";
+        if (library != null) {
+            library.getNotificationService().sendToUser(reservation.getUser(), text);
+        }
+        handOff(book);
+        return true;
+    }
+
+    // Removes a fulfilled reservation from its patron and from the library
+    private static void removeReservation(K2558859_Reservation reservation) {
+        reservation.getUser().removeReservation(reservation);
+        K2558859_LibraryManagementSystem library = K2558859_LibraryManagementSystem.getInstance();
+        if (library != null) {
+            library.removeReservation(reservation);
+        }
+    }
+}
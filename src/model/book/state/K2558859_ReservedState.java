@@ -2,34 +2,42 @@ package model.book.state;
 
 import model.book.K2558859_Book;
 import model.user.K2558859_User;
-import model.borrow.K2558859_BorrowRecord;
-import java.time.LocalDate;
-import java.util.List;
+import exception.RuleViolationException;
 
-// K2558859_ReservedState - Concrete state representing a reserved book
+// K2558859_ReservedState - Concrete state representing a borrowed book with patrons waiting for it
 public class K2558859_ReservedState implements K2558859_BookState {
+    // Shared instance (Flyweight) - states hold no per-book data
+    public static final K2558859_ReservedState INSTANCE = new K2558859_ReservedState();
+
+    private K2558859_ReservedState() {
+    }
 
     // Cannot borrow a book that is reserved
     @Override
-    public void borrow(K2558859_Book book, K2558859_User user) {
-        System.out.println("Error: Book '" + book.getTitle() + "' is currently reserved and cannot be borrowed.");
+    public void borrow(K2558859_Book book, K2558859_User user) throws RuleViolationException {
+        throw RuleViolationException.of(RuleViolationException.Rule.BOOK_RESERVED);
     }
 
     // Allows returning when the book is in reserved state (still borrowed but has a reservation)
     @Override
     public void returnBook(K2558859_Book book) {
-        // Transition to K2558859_AvailableState
-        book.setState(new K2558859_AvailableState());
+        // Set the book aside for the first patron in the queue
+        K2558859_OnHoldState.handOff(book);
     }
 
-    // Cannot reserve a book that is already reserved
+    // Adds the user to the end of the book's reservation queue
     @Override
-    public void reserve(K2558859_Book book, K2558859_User user) {
-        System.out.println("Error: Book '" + book.getTitle() + "' is already reserved by another user.");
+    public void reserve(K2558859_Book book, K2558859_User user) throws RuleViolationException {
+        K2558859_BorrowedState.enqueueReservation(book, user);
     }
 
     @Override
     public String getStateName() {
         return "Reserved";
     }
+
+    @Override
+    public byte getStateCode() {
+        return RESERVED;
+    }
 }
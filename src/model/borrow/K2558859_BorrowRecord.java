@@ -3,6 +3,7 @@ package model.borrow;
 import model.book.K2558859_Book;
 import model.user.K2558859_User;
 import model.user.fines.K2558859_FineStrategy;
+import service.K2558859_LibraryManagementSystem;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.Random;
@@ -54,6 +55,11 @@ public class K2558859_BorrowRecord {
     // Setters
     public void setReturnDate(LocalDate returnDate) {
         this.returnDate = returnDate;
+        // Cancel or restore the loan's due-date reminders
+        K2558859_LibraryManagementSystem library = K2558859_LibraryManagementSystem.getInstance();
+        if (library != null) {
+            library.loanStatusChanged(this);
+        }
     }
 
     // Public Methods
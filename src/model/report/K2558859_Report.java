@@ -1,5 +1,6 @@
 package model.report;
 
+import util.Output;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -9,14 +10,14 @@ public class K2558859_Report {
     private String reportId;
     private String reportType;
     private LocalDate generatedDate;
-    private String content;
+    private final StringBuilder content; // Appended line by line; copying the text per line was quadratic
 
     // Constructor for K2558859_Report
     public K2558859_Report(String reportId, String reportType) {
         this.reportId = reportId;
         this.reportType = reportType;
         this.generatedDate = LocalDate.now();
-        this.content = "";
+        this.content = new StringBuilder();
     }
 
     // Getters
@@ -33,23 +34,24 @@ public class K2558859_Report {
     }
 
     public String getContent() {
-        return content;
+        return content.toString();
     }
 
     // Sets the content of the report
     public void setContent(String content) {
-        this.content = content;
+        this.content.setLength(0);
+        this.content.append(content);
     }
 
     // Generates the report based on the report type
     public void generate() {
-        System.out.println("Generating " + reportType + " report...");
+        Output.info("Generating " + reportType + " report...");
         
-        if (content.isEmpty()) {
-            content = "Report data not available. Please populate report content.";
+        if (content.length() == 0) {
+            content.append("Report data not available. Please populate report content.");
         }
         
-        System.out.println("Report generated successfully on " + generatedDate);
+        Output.info("Report generated successfully on " + generatedDate);
     }
 
     // Displays the report content in a formatted manner
@@ -68,10 +70,10 @@ public class K2558859_Report {
 
     // Adds a line to the report content
     public void addLine(String line) {
-        if (!content.isEmpty()) {
-            content += "\n";
+        if (content.length() > 0) {
+            content.append('\n');
         }
-        content += line;
+        content.append(line);
     }
 
     @Override
@@ -2,7 +2,11 @@ package model.reservation;
 
 import model.book.K2558859_Book;
 import model.user.K2558859_User;
+import service.K2558859_LibraryManagementSystem;
+import util.Output;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Random;
 
 // K2558859_Reservation class represents a book reservation made by a user
@@ -12,6 +16,8 @@ public class K2558859_Reservation {
     private K2558859_User user;
     private LocalDate reservationDate;
     private boolean isNotified;
+    private long queueTicket; // Arrival order in the book's reservation queue
+    private LocalDateTime holdExpiresAt; // Set while the book is on hold for this reservation
 
     // Constructor for K2558859_Reservation
     public K2558859_Reservation(String reservationId, K2558859_Book book, K2558859_User user, LocalDate reservationDate) {
@@ -43,21 +49,52 @@ public class K2558859_Reservation {
         return isNotified;
     }
 
+    public LocalDateTime getHoldExpiresAt() {
+        return holdExpiresAt;
+    }
+
+    // Starts the pickup window once the book is set aside for this reservation
+    public void startHold(LocalDateTime expiresAt) {
+        this.holdExpiresAt = expiresAt;
+    }
+
+    // Clears the pickup window when a hold is taken back before it was announced
+    public void clearHold() {
+        this.holdExpiresAt = null;
+    }
+
+    long getQueueTicket() {
+        return queueTicket;
+    }
+
+    void setQueueTicket(long queueTicket) {
+        this.queueTicket = queueTicket;
+    }
+
     // Notifies the user that their reserved book is available
     public void notifyUser() {
         if (!isNotified) {
-            System.out.println("Notification sent to " + user.getName() + 
-                             " (" + user.getEmail() + "): Your reserved book '" + 
-                             book.getTitle() + "' is now available for pickup.");
+            String text = "Your reserved book '" + book.getTitle() + "' is now available for pickup.";
+            if (holdExpiresAt != null) {
+                text += " Please collect it by " + holdExpiresAt.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) + ".";
+            }
+            // Send through the library's notification service so the message can be merged into a digest
+            K2558859_LibraryManagementSystem library = K2558859_LibraryManagementSystem.getInstance();
+            if (library != null) {
+                library.getNotificationService().sendToUser(user, text);
+            } else {
+                Output.info("Notification sent to " + user.getName() + 
+                                 " (" + user.getEmail() + "): " + text);
+            }
             isNotified = true;
         } else {
-            System.out.println("User " + user.getName() + " has already been notified about this reservation.");
+            Output.info("User " + user.getName() + " has already been notified about this reservation.");
         }
     }
 
     // Cancels the reservation
     public void cancel() {
-        System.out.println("Reservation " + reservationId + " for book '" + 
+        Output.info("Reservation " + reservationId + " for book '" + 
                          book.getTitle() + "' by " + user.getName() + " has been cancelled.");
         
         // Note: The actual removal happens in the K2558859_User class and in the K2558859_LibraryManagementSystem
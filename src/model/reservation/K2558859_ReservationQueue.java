@@ -0,0 +1,164 @@
+package model.reservation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// K2558859_ReservationQueue - FIFO waitlist of reservations for one book
+// A doubly linked list in arrival order plus an index by user ID gives O(1) enqueue,
+// dequeue and cancel-by-user. The reservation whose turn has come is kept separately as the hold.
+public class K2558859_ReservationQueue {
+    private final Map<String, Node> nodesByUserId = new HashMap<>();
+    private Node head;
+    private Node tail;
+    private long nextTicket = 1;
+    private K2558859_Reservation holder;
+
+    // Adds a reservation at the end of the queue
+    public synchronized void enqueue(K2558859_Reservation reservation) {
+        String userId = reservation.getUser().getUserId();
+        if (nodesByUserId.containsKey(userId) || isHeldFor(userId)) {
+            throw new IllegalStateException(reservation.getUser().getName() + " is already waiting for this book.");
+        }
+        reservation.setQueueTicket(nextTicket++);
+        Node node = new Node(reservation);
+        linkLast(node);
+        nodesByUserId.put(userId, node);
+    }
+
+    // Removes and returns the reservation at the head of the queue, or null if nobody is waiting
+    public synchronized K2558859_Reservation poll() {
+        if (head == null) {
+            return null;
+        }
+        Node node = head;
+        unlink(node);
+        nodesByUserId.remove(node.reservation.getUser().getUserId());
+        return node.reservation;
+    }
+
+    // Removes a waiting patron's reservation; returns it, or null if the patron is not waiting
+    public synchronized K2558859_Reservation remove(String userId) {
+        Node node = nodesByUserId.remove(userId);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.reservation;
+    }
+
+    // Puts a removed reservation back at the place its ticket gives it (used to undo a cancellation)
+    public synchronized void restore(K2558859_Reservation reservation) {
+        String userId = reservation.getUser().getUserId();
+        if (nodesByUserId.containsKey(userId) || isHeldFor(userId)) {
+            return;
+        }
+        Node node = new Node(reservation);
+        Node after = tail;
+        while (after != null && after.reservation.getQueueTicket() > reservation.getQueueTicket()) {
+            after = after.prev;
+        }
+        if (after == null) {
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            } else {
+                tail = node;
+            }
+            head = node;
+        } else if (after == tail) {
+            linkLast(node);
+        } else {
+            node.prev = after;
+            node.next = after.next;
+            after.next.prev = node;
+            after.next = node;
+        }
+        nodesByUserId.put(userId, node);
+    }
+
+    // Gets a patron's place in line: 0 if the book is on hold for them, 1 for the head of the queue,
+    // or -1 if the patron is not waiting
+    public synchronized int getPosition(String userId) {
+        if (isHeldFor(userId)) {
+            return 0;
+        }
+        Node target = nodesByUserId.get(userId);
+        if (target == null) {
+            return -1;
+        }
+        int position = 1;
+        for (Node node = head; node != target; node = node.next) {
+            position++;
+        }
+        return position;
+    }
+
+    // Gets the waiting reservations in queue order
+    public synchronized List<K2558859_Reservation> getWaiting() {
+        List<K2558859_Reservation> waiting = new ArrayList<>(nodesByUserId.size());
+        for (Node node = head; node != null; node = node.next) {
+            waiting.add(node.reservation);
+        }
+        return waiting;
+    }
+
+    public synchronized int size() {
+        return nodesByUserId.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return head == null;
+    }
+
+    // ----- Hold -----
+
+    public synchronized K2558859_Reservation getHolder() {
+        return holder;
+    }
+
+    public synchronized void setHolder(K2558859_Reservation holder) {
+        this.holder = holder;
+    }
+
+    public synchronized boolean isHeldFor(String userId) {
+        return holder != null && holder.getUser().getUserId().equals(userId);
+    }
+
+    private void linkLast(Node node) {
+        node.prev = tail;
+        if (tail != null) {
+            tail.next = node;
+        } else {
+            head = node;
+        }
+        tail = node;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    // Queue entry
+    private static final class Node {
+        private final K2558859_Reservation reservation;
+        private Node prev;
+        private Node next;
+
+        private Node(K2558859_Reservation reservation) {
+            this.reservation = reservation;
+        }
+    }
+}
@@ -1,23 +1,44 @@
 package model.user;
 
 import exception.LibraryException;
+import exception.RuleViolationException;
 import model.book.K2558859_Book;
+import model.book.state.K2558859_AvailableState;
+import model.book.state.K2558859_BookState;
+import model.book.state.K2558859_BorrowedState;
+import model.book.state.K2558859_OnHoldState;
+import model.book.state.K2558859_ReservedState;
 import model.borrow.K2558859_BorrowRecord;
 import model.reservation.K2558859_Reservation;
+import model.reservation.K2558859_ReservationQueue;
 import model.user.fines.K2558859_FineStrategy;
+import util.Output;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 // Abstract K2558859_User class representing a library user
 public abstract class K2558859_User {
+    // Display label of each user class ("Student", "Faculty", ...), computed once per class
+    private static final ClassValue<String> MEMBERSHIP_TYPES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return util.ValidationUtil.removeClassPrefix(type.getSimpleName());
+        }
+    };
+
     protected String userId;
     protected String name;
     protected String email;
     protected String contactNumber;
     protected List<K2558859_BorrowRecord> borrowedBooks;
-    protected List<K2558859_Reservation> reservations;
+    protected Map<String, K2558859_Reservation> reservations; // Keyed by book ID
 
     // Constructor for K2558859_User
     public K2558859_User(String userId, String name, String email, String contactNumber) {
@@ -26,7 +47,7 @@ public abstract class K2558859_User {
         this.email = email;
         this.contactNumber = contactNumber;
         this.borrowedBooks = new ArrayList<>();
-        this.reservations = new ArrayList<>();
+        this.reservations = new LinkedHashMap<>();
     }
 
     // Getters
@@ -46,12 +67,17 @@ public abstract class K2558859_User {
         return contactNumber;
     }
 
+    // Gets the membership type label, e.g. "Student"
+    public String getMembershipType() {
+        return MEMBERSHIP_TYPES.get(getClass());
+    }
+
     public List<K2558859_BorrowRecord> getBorrowedBooks() {
         return Collections.unmodifiableList(borrowedBooks);
     }
 
     public List<K2558859_Reservation> getReservations() {
-        return Collections.unmodifiableList(reservations);
+        return Collections.unmodifiableList(new ArrayList<>(reservations.values()));
     }
 
     public int getActiveBorrowCount() {
@@ -61,44 +87,158 @@ public abstract class K2558859_User {
     }
 
 
-    // Borrows a book for the user
-    public void borrowBook(K2558859_Book book) throws LibraryException {
+    // Borrows a book for the user; a broken rule is reported with the shared, stackless violation
+    public void borrowBook(K2558859_Book book) throws RuleViolationException {
         long activeBorrows = borrowedBooks.stream()
             .filter(record -> record.getReturnDate() == null)
             .count();
         
         if (activeBorrows >= getMaxBorrowCapacity()) {
-            throw new LibraryException(name + " has reached the borrow limit of " + getMaxBorrowCapacity() + " books.");
+            throw RuleViolationException.of(RuleViolationException.Rule.BORROW_LIMIT_REACHED);
         }
 
         book.borrow(this);
     }
 
-    // Returns a borrowed book
-    public void returnBook(K2558859_Book book) throws LibraryException {
-        K2558859_BorrowRecord recordToUpdate = borrowedBooks.stream()
+    // Finds the user's open (not yet returned) loan of a book, or null
+    public K2558859_BorrowRecord findOpenBorrowRecord(K2558859_Book book) {
+        return borrowedBooks.stream()
             .filter(record -> record.getBook().getBookId().equals(book.getBookId()) && record.getReturnDate() == null)
             .findFirst()
             .orElse(null);
+    }
+
+    // Finds the user's reservation for a book, or null
+    public K2558859_Reservation findReservation(K2558859_Book book) {
+        return reservations.get(book.getBookId());
+    }
+
+    // Returns a borrowed book
+    public void returnBook(K2558859_Book book) throws RuleViolationException {
+        K2558859_BorrowRecord recordToUpdate = findOpenBorrowRecord(book);
         
         if (recordToUpdate == null) {
-            throw new LibraryException(name + " has not borrowed this book or has already returned it.");
+            throw RuleViolationException.of(RuleViolationException.Rule.NOT_BORROWED_BY_USER);
         }
 
         book.returnBook();
 
         recordToUpdate.setReturnDate(LocalDate.now());
-        System.out.println("Book '" + book.getTitle() + "' returned by " + name + ".");
+        Output.info("Book '" + book.getTitle() + "' returned by " + name + ".");
+    }
+
+    // Borrows several books as one unit - capacity is checked once and nothing is borrowed if any book fails
+    public List<K2558859_BorrowRecord> borrowBooks(List<K2558859_Book> books) throws LibraryException {
+        int activeBorrows = getActiveBorrowCount();
+        if (activeBorrows + books.size() > getMaxBorrowCapacity()) {
+            throw RuleViolationException.of(RuleViolationException.Rule.BATCH_EXCEEDS_LIMIT);
+        }
+
+        // Validate the whole batch before changing any state
+        Set<String> seen = new HashSet<>();
+        for (K2558859_Book book : books) {
+            if (!seen.add(book.getBookId())) {
+                throw new LibraryException("Book '" + book.getTitle() + "' appears more than once in the batch.");
+            }
+            if (book.getAvailabilityStatus().getStateCode() != K2558859_BookState.AVAILABLE) {
+                throw new LibraryException("Book '" + book.getTitle() + "' is " +
+                                           book.getAvailabilityStatus().getStateName().toLowerCase() +
+                                           " and cannot be borrowed.");
+            }
+        }
+
+        List<K2558859_BorrowRecord> created = new ArrayList<>(books.size());
+        try {
+            for (K2558859_Book book : books) {
+                created.add(K2558859_AvailableState.checkout(book, this));
+            }
+        } catch (RuntimeException e) {
+            // Roll back the books already checked out in this batch
+            for (int i = created.size() - 1; i >= 0; i--) {
+                K2558859_AvailableState.revertCheckout(created.get(i));
+            }
+            throw new LibraryException("Batch checkout for " + name + " failed and was rolled back: " + e.getMessage(), e);
+        }
+
+        Output.info("\n" + created.size() + " book(s) borrowed by " + name + ".");
+        return created;
+    }
+
+    // Returns several books as one unit - nothing is returned if any book was not borrowed by this user
+    public List<K2558859_BorrowRecord> returnBooks(List<K2558859_Book> books) throws LibraryException {
+        // Index open loans once instead of searching the borrow list per book
+        Map<String, K2558859_BorrowRecord> openLoans = new HashMap<>();
+        for (K2558859_BorrowRecord record : borrowedBooks) {
+            if (record.getReturnDate() == null) {
+                openLoans.put(record.getBook().getBookId(), record);
+            }
+        }
+
+        List<K2558859_BorrowRecord> records = new ArrayList<>(books.size());
+        for (K2558859_Book book : books) {
+            K2558859_BorrowRecord record = openLoans.remove(book.getBookId());
+            if (record == null) {
+                throw new LibraryException(name + " has not borrowed '" + book.getTitle() +
+                                           "', has already returned it or listed it twice.");
+            }
+            records.add(record);
+        }
+
+        // Every book must still be out on loan, so no transition below is turned down halfway through the batch
+        for (K2558859_Book book : books) {
+            byte state = book.getAvailabilityStatus().getStateCode();
+            if (state != K2558859_BookState.BORROWED && state != K2558859_BookState.RESERVED) {
+                throw new LibraryException("Book '" + book.getTitle() + "' is " +
+                                           book.getAvailabilityStatus().getStateName().toLowerCase() +
+                                           " and cannot be returned.");
+            }
+        }
+
+        // Reserved books are set aside for the next patron, who is only notified once the whole batch succeeded
+        List<K2558859_BookState> previousStates = new ArrayList<>(books.size());
+        List<K2558859_Reservation> holds = new ArrayList<>(books.size());
+        LocalDate today = LocalDate.now();
+        try {
+            for (int i = 0; i < books.size(); i++) {
+                K2558859_Book book = books.get(i);
+                K2558859_BookState previous = book.getAvailabilityStatus();
+                previousStates.add(previous);
+                if (previous.getStateCode() == K2558859_BookState.RESERVED) {
+                    holds.add(K2558859_OnHoldState.placeHold(book));
+                } else {
+                    book.returnBook();
+                    holds.add(null);
+                }
+                records.get(i).setReturnDate(today);
+            }
+        } catch (RuntimeException | RuleViolationException e) {
+            // Restore the state, hand-off and open loan of every book touched so far
+            for (int i = previousStates.size() - 1; i >= 0; i--) {
+                K2558859_Book book = books.get(i);
+                if (i < holds.size() && previousStates.get(i).getStateCode() == K2558859_BookState.RESERVED) {
+                    K2558859_OnHoldState.revertPlaceHold(book, holds.get(i));
+                } else {
+                    book.setState(previousStates.get(i));
+                }
+                records.get(i).setReturnDate(null);
+            }
+            throw new LibraryException("Batch return for " + name + " failed and was rolled back: " + e.getMessage(), e);
+        }
+
+        for (K2558859_Reservation hold : holds) {
+            if (hold != null) {
+                hold.notifyUser();
+            }
+        }
+        Output.info(books.size() + " book(s) returned by " + name + ".");
+        return records;
     }
 
     // Reserves a book for the user
-    public void reserveBook(K2558859_Book book) throws LibraryException {
+    public void reserveBook(K2558859_Book book) throws RuleViolationException {
         // Check if user already has a reservation for this book
-        boolean alreadyReserved = reservations.stream()
-            .anyMatch(reservation -> reservation.getBook().getBookId().equals(book.getBookId()));
-        
-        if (alreadyReserved) {
-            throw new LibraryException(name + " has already reserved this book.");
+        if (reservations.containsKey(book.getBookId())) {
+            throw RuleViolationException.of(RuleViolationException.Rule.ALREADY_RESERVED);
         }
 
         book.reserve(this);
@@ -106,28 +246,60 @@ public abstract class K2558859_User {
 
     // Adds a reservation to the user's reservation list
     public void addReservation(K2558859_Reservation reservation) {
-        reservations.add(reservation);
+        reservations.put(reservation.getBook().getBookId(), reservation);
+    }
+
+    // Removes a reservation from the user's reservation list (used once a hold is collected)
+    public void removeReservation(K2558859_Reservation reservation) {
+        reservations.remove(reservation.getBook().getBookId(), reservation);
     }
 
     // Cancels a reservation for a book
-    public void cancelReservation(K2558859_Book book) throws LibraryException {
-        // Find the reservation using a stream for consistency
-        K2558859_Reservation toRemove = reservations.stream()
-            .filter(reservation -> reservation.getBook().getBookId().equals(book.getBookId()))
-            .findFirst()
-            .orElseThrow(() -> new LibraryException("No reservation found for book '" + book.getTitle() + "'."));
+    public void cancelReservation(K2558859_Book book) throws RuleViolationException {
+        K2558859_Reservation toRemove = reservations.remove(book.getBookId());
+        if (toRemove == null) {
+            throw RuleViolationException.of(RuleViolationException.Rule.NO_RESERVATION);
+        }
 
         toRemove.cancel();
-        reservations.remove(toRemove);
         
         // Remove from library's global reservations list
         service.K2558859_LibraryManagementSystem library = service.K2558859_LibraryManagementSystem.getInstance();
         if (library != null) {
-            library.getReservations().remove(toRemove);
+            library.removeReservation(toRemove);
         }
         
-        // Change book state back to Borrowed (since it was borrowed before reservation)
-        book.setState(new model.book.state.K2558859_BorrowedState());
+        K2558859_ReservationQueue queue = book.getReservationQueue();
+        if (queue.getHolder() == toRemove) {
+            // The held copy goes to the next patron in line
+            K2558859_OnHoldState.handOff(book);
+        } else {
+            queue.remove(userId);
+            // A borrowed book nobody is waiting for any more is plain borrowed again
+            if (queue.isEmpty() && book.getAvailabilityStatus() instanceof K2558859_ReservedState) {
+                book.setState(K2558859_BorrowedState.INSTANCE);
+            }
+        }
+    }
+
+    // Puts back a cancelled reservation at its old place in the queue together with the book state it had
+    // (used to undo a cancellation); returns false, changing nothing, unless the book is still in the state and
+    // held for the same patron as right after the cancellation
+    public boolean restoreReservation(K2558859_Reservation reservation, K2558859_BookState stateAfterCancel,
+                                      K2558859_Reservation holderAfterCancel, K2558859_BookState bookState) {
+        K2558859_Book book = reservation.getBook();
+        if (book.getAvailabilityStatus().getStateCode() != stateAfterCancel.getStateCode()
+                || book.getReservationQueue().getHolder() != holderAfterCancel) {
+            return false;
+        }
+        addReservation(reservation);
+        service.K2558859_LibraryManagementSystem library = service.K2558859_LibraryManagementSystem.getInstance();
+        if (library != null) {
+            library.addReservation(reservation);
+        }
+        book.getReservationQueue().restore(reservation);
+        book.setState(bookState);
+        return true;
     }
 
     // Adds a borrow record to the user's borrowed books list
@@ -135,6 +307,11 @@ public abstract class K2558859_User {
         borrowedBooks.add(record);
     }
 
+    // Removes a borrow record from the user's borrowed books list
+    public void removeBorrowRecord(K2558859_BorrowRecord record) {
+        borrowedBooks.remove(record);
+    }
+
     // Abstract methods to be implemented by subclasses (Strategy Pattern)
     // Gets the borrow period in days based on membership type
     public abstract int getBorrowPeriodInDays();
@@ -151,7 +328,7 @@ public abstract class K2558859_User {
                 "userId='" + userId + '\'' +
                 ", name='" + name + '\'' +
                 ", email='" + email + '\'' +
-                ", membershipType='" + util.ValidationUtil.removeClassPrefix(this.getClass().getSimpleName()) + '\'' +
+                ", membershipType='" + getMembershipType() + '\'' +
                 ", activeBorrows=" + getActiveBorrowCount() +
                 '}';
     }
@@ -2,46 +2,102 @@ package service;
 
 import model.book.K2558859_Book;
 import model.book.K2558859_BasicBook;
+import model.book.K2558859_BookDecoration;
+import model.book.K2558859_BookMetadata;
+import model.book.K2558859_Title;
 import model.book.state.K2558859_BookState;
+import model.book.state.K2558859_BookStateTable;
 import model.user.K2558859_User;
 import model.user.K2558859_Librarian;
 import model.borrow.K2558859_BorrowRecord;
 import model.reservation.K2558859_Reservation;
 import model.report.K2558859_Report;
 import command.*;
+import service.notification.K2558859_NotificationService;
+import service.reminder.K2558859_DueDateReminderScheduler;
+import service.reservation.K2558859_HoldExpirySweeper;
 import exception.LibraryException;
 import exception.BookNotFoundException;
 import exception.UserNotFoundException;
 import exception.InvalidOperationException;
+import exception.ConcurrentUpdateException;
+import util.IdGenerator;
+import util.Output;
+import util.SnapshotList;
+import util.SnowflakeIdGenerator;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // K2558859_LibraryManagementSystem - Central service class managing all library operations
 public class K2558859_LibraryManagementSystem {
-    private List<K2558859_Book> books;
-    private List<K2558859_User> users;
+    public static final Duration DEFAULT_HOLD_WINDOW = Duration.ofDays(3);
+    private static final IdGenerator DEFAULT_ID_GENERATOR = new SnowflakeIdGenerator();
+
+    private SnapshotList<K2558859_Book> books;
+    private SnapshotList<K2558859_User> users;
+    private Map<String, K2558859_Book> booksById; // Keyed by lower-case ID, as IDs are matched ignoring case
+    private Map<String, K2558859_User> usersById;
     private List<K2558859_Librarian> librarians;
-    private List<K2558859_BorrowRecord> borrowRecords;
-    private List<K2558859_Reservation> reservations;
+    private SnapshotList<K2558859_BorrowRecord> borrowRecords;
+    private K2558859_ReservationStore reservations;
+    private Map<String, K2558859_Title> titlesByIsbn;
+    private K2558859_BookStateTable stateTable;
+    private Map<K2558859_BookDecoration, Map<String, K2558859_Book>> decoratedBooks; // Front-page listings by book ID
+    private Map<String, Map<String, K2558859_Book>> booksByTag; // Inverted tag index: tag -> books by book ID
     private K2558859_CommandInvoker commandInvoker;
-    private List<K2558859_Report> reports;
+    private volatile K2558859_CommandEventLoop commandEventLoop; // Switched under the command invoker's lock
+    private SnapshotList<K2558859_Report> reports;
+    private volatile K2558859_LibrarySnapshot snapshot;
+    private K2558859_NotificationService notificationService;
+    private K2558859_DueDateReminderScheduler reminderScheduler;
+    private K2558859_HoldExpirySweeper holdExpirySweeper;
+    private volatile Duration holdWindow = DEFAULT_HOLD_WINDOW;
+    private volatile IdGenerator idGenerator = DEFAULT_ID_GENERATOR;
+    private volatile Lock backgroundLock; // Taken by hold expiry and reminders, e.g. an API server's write lock
 
     private static K2558859_LibraryManagementSystem instance;
 
     // Constructor
     public K2558859_LibraryManagementSystem() {
+        this(K2558859_CommandInvoker.DEFAULT_HISTORY_CAPACITY);
+    }
+
+    // Constructor with a custom undo history capacity
+    public K2558859_LibraryManagementSystem(int commandHistoryCapacity) {
         instance = this;
-        this.books = new ArrayList<>();
-        this.users = new ArrayList<>();
+        this.books = new SnapshotList<>();
+        this.users = new SnapshotList<>();
+        this.booksById = new ConcurrentHashMap<>();
+        this.usersById = new ConcurrentHashMap<>();
         this.librarians = new ArrayList<>();
-        this.borrowRecords = new ArrayList<>();
-        this.reservations = new ArrayList<>();
-        this.reports = new ArrayList<>();
-        this.commandInvoker = new K2558859_CommandInvoker();
+        this.borrowRecords = new SnapshotList<>();
+        this.reservations = new K2558859_ReservationStore();
+        this.titlesByIsbn = new ConcurrentHashMap<>();
+        this.stateTable = new K2558859_BookStateTable();
+        this.decoratedBooks = new EnumMap<>(K2558859_BookDecoration.class);
+        for (K2558859_BookDecoration decoration : K2558859_BookDecoration.values()) {
+            decoratedBooks.put(decoration, new ConcurrentSkipListMap<>());
+        }
+        this.booksByTag = new ConcurrentHashMap<>();
+        this.reports = new SnapshotList<>();
+        this.commandInvoker = new K2558859_CommandInvoker(commandHistoryCapacity);
+        this.notificationService = new K2558859_NotificationService();
     }
 
     // ----- Book Management -----
@@ -49,72 +105,230 @@ public class K2558859_LibraryManagementSystem {
     // Adds a new book to the library system
     public void addBook(K2558859_Book book) {
         books.add(book);
-        System.out.println("Book '" + book.getTitle() + "' added successfully.");
+        booksById.putIfAbsent(idKey(book.getBookId()), book);
+        book.attachStateTable(stateTable);
+        indexTitle(book.getTitleRecord());
+        indexTags(book);
+        indexDecorations(book);
+        Output.info("Book '" + book.getTitle() + "' added successfully.");
+    }
+
+    // Adds another physical copy of a book; the copy shares the book's bibliographic record
+    public K2558859_Book addCopy(String existingBookId, String newBookId) throws LibraryException {
+        K2558859_Book original = findBookById(existingBookId);
+        if (original == null) throw new BookNotFoundException(existingBookId);
+        if (findBookById(newBookId) != null) {
+            throw new InvalidOperationException("A book with ID " + newBookId + " already exists.");
+        }
+        K2558859_Book copy = new K2558859_BasicBook(newBookId, original.getTitleRecord());
+        books.add(copy);
+        booksById.putIfAbsent(idKey(newBookId), copy);
+        copy.attachStateTable(stateTable);
+        indexTitle(copy.getTitleRecord());
+        indexTags(copy);
+        return copy;
+    }
+
+    // Finds the bibliographic record for an ISBN, or null
+    public K2558859_Title findTitleByIsbn(String isbn) {
+        return isbn == null ? null : titlesByIsbn.get(normalizeIsbn(isbn));
+    }
+
+    // Checks whether any copy of the title with this ISBN can be borrowed right now (O(1))
+    public boolean isAnyCopyAvailable(String isbn) {
+        K2558859_Title title = findTitleByIsbn(isbn);
+        return title != null && title.isAnyCopyAvailable();
+    }
+
+    // Counts the books in one state with a scan of the compact state table
+    public int countBooksByState(K2558859_BookState state) {
+        return stateTable.count(state.getStateCode());
+    }
+
+    // Counts the books in every state in one pass; the result is indexed by state code
+    public int[] getBookStateCounts() {
+        return stateTable.countAll();
+    }
+
+    // Gets every distinct title in the collection
+    public List<K2558859_Title> getTitles() {
+        return new ArrayList<>(titlesByIsbn.values());
+    }
+
+    private void indexTitle(K2558859_Title title) {
+        if (title.getIsbn() != null && !title.getIsbn().trim().isEmpty()) {
+            titlesByIsbn.putIfAbsent(normalizeIsbn(title.getIsbn()), title);
+        }
+    }
+
+    // Drops a title from the ISBN index once its last copy has gone
+    private void unindexTitle(K2558859_Title title) {
+        if (title.getCopyCount() == 0 && title.getIsbn() != null) {
+            titlesByIsbn.remove(normalizeIsbn(title.getIsbn()), title);
+        }
+    }
+
+    // Gets every book tagged with the tag, ordered by book ID, with one index lookup
+    public List<K2558859_Book> findBooksByTag(String tag) {
+        String normalized = K2558859_BookMetadata.normalizeTag(tag);
+        Map<String, K2558859_Book> tagged = normalized == null ? null : booksByTag.get(normalized);
+        return tagged == null ? new ArrayList<>() : new ArrayList<>(tagged.values());
+    }
+
+    // Gets every tag in use with the number of books carrying it, in alphabetical order
+    public Map<String, Integer> getTagCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        booksByTag.forEach((tag, tagged) -> {
+            if (!tagged.isEmpty()) {
+                counts.put(tag, tagged.size());
+            }
+        });
+        return counts;
+    }
+
+    private void indexTags(K2558859_Book book) {
+        for (String tag : book.getBookMetadata().getTags()) {
+            booksByTag.computeIfAbsent(tag, key -> new ConcurrentSkipListMap<>()).put(book.getBookId(), book);
+        }
+    }
+
+    private void unindexTags(K2558859_Book book) {
+        for (String tag : book.getBookMetadata().getTags()) {
+            Map<String, K2558859_Book> tagged = booksByTag.get(tag);
+            if (tagged != null) {
+                tagged.remove(book.getBookId(), book);
+            }
+        }
+    }
+
+    // Gets the books carrying a decoration, ordered by book ID, for front-page listings
+    public List<K2558859_Book> getDecoratedBooks(K2558859_BookDecoration decoration) {
+        return new ArrayList<>(decoratedBooks.get(decoration).values());
+    }
+
+    // Called by a book whenever its decorations change; books outside the collection are ignored
+    public void decorationsChanged(K2558859_Book book) {
+        if (book.getBookNumber() >= 0) {
+            indexDecorations(book);
+        }
+    }
+
+    private void indexDecorations(K2558859_Book book) {
+        for (Map.Entry<K2558859_BookDecoration, Map<String, K2558859_Book>> entry : decoratedBooks.entrySet()) {
+            if (book.hasDecoration(entry.getKey())) {
+                entry.getValue().put(book.getBookId(), book);
+            } else {
+                entry.getValue().remove(book.getBookId());
+            }
+        }
+    }
+
+    private void unindexDecorations(K2558859_Book book) {
+        for (Map<String, K2558859_Book> listing : decoratedBooks.values()) {
+            listing.remove(book.getBookId(), book);
+        }
+    }
+
+    private static String normalizeIsbn(String isbn) {
+        return isbn.replace("-", "").replace(" ", "").toUpperCase();
     }
 
     // Removes a book from the library system
     public void removeBook(String bookId) {
         K2558859_Book book = findBookById(bookId);
         if (book == null) {
-            System.out.println("Error: Book with ID " + bookId + " not found.");
+            Output.error("Error: Book with ID " + bookId + " not found.");
             return;
         }
 
-        // Check if book is currently borrowed or reserved
-        if (book.getAvailabilityStatus().getStateName().equals("Borrowed") ||
-            book.getAvailabilityStatus().getStateName().equals("Reserved")) {
-            System.out.println("Error: Cannot remove book '" + book.getTitle() + "' as it is currently " + 
+        // Check if book is currently borrowed, reserved or on hold
+        if (book.getAvailabilityStatus().getStateCode() != K2558859_BookState.AVAILABLE) {
+            Output.error("Error: Cannot remove book '" + book.getTitle() + "' as it is currently " + 
                              book.getAvailabilityStatus().getStateName().toLowerCase() + ".");
             return;
         }
 
         books.remove(book);
-        System.out.println("Book '" + book.getTitle() + "' removed successfully.");
+        booksById.remove(idKey(book.getBookId()), book);
+        book.withdraw();
+        book.detachStateTable();
+        unindexTitle(book.getTitleRecord());
+        unindexTags(book);
+        unindexDecorations(book);
+        Output.info("Book '" + book.getTitle() + "' removed successfully.");
     }
 
-    // Updates an existing book's details
+    // Updates an existing book's details, whatever version they are at
     public void updateBook(String bookId, String newTitle, String newAuthor, String newCategory, String newIsbn) {
         K2558859_Book book = findBookById(bookId);
         if (book == null) {
-            System.out.println("Error: Book with ID " + bookId + " not found.");
+            Output.error("Error: Book with ID " + bookId + " not found.");
             return;
         }
 
-        // Check if book is currently borrowed or reserved
-        if (book.getAvailabilityStatus().getStateName().equals("Borrowed") ||
-            book.getAvailabilityStatus().getStateName().equals("Reserved")) {
-            System.out.println("Warning: Book '" + book.getTitle() + "' is currently " + 
+        // Check if book is currently borrowed, reserved or on hold
+        if (book.getAvailabilityStatus().getStateCode() != K2558859_BookState.AVAILABLE) {
+            Output.warn("Warning: Book '" + book.getTitle() + "' is currently " + 
                              book.getAvailabilityStatus().getStateName().toLowerCase() + 
                              ". Updates will be applied but the status remains unchanged.");
         }
 
         // Store old values for confirmation message
         String oldTitle = book.getTitle();
-        
-        // Since Book fields are protected, we need to remove and add a new book
-        // with updated details while preserving the state and history
-        K2558859_BookState currentState = book.getAvailabilityStatus();
-        List<K2558859_BorrowRecord> history = new ArrayList<>(book.getBorrowHistory());
-        List<String> metadata = new ArrayList<>(book.getMetadata());
+        try {
+            updateBook(bookId, book.getVersion(), newTitle, newAuthor, newCategory, newIsbn);
+        } catch (LibraryException e) {
+            Output.error("Error: " + e.getMessage());
+            return;
+        }
 
-        // Remove old book
-        books.remove(book);
+        Output.info("\nBook updated successfully!");
+        Output.info("Previous: '" + oldTitle + "'");
+        Output.info("Updated:  '" + newTitle + "'");
+    }
 
-        // Create new book with updated details
-        K2558859_Book updatedBook = new K2558859_BasicBook(bookId, newTitle, newAuthor, newCategory, newIsbn, metadata);
-        updatedBook.setState(currentState);
-        
-        // Restore borrow history
-        for (K2558859_BorrowRecord record : history) {
-            updatedBook.addBorrowRecord(record);
+    // Updates a book's details in place if they are still at expectedVersion, and returns the book's new version.
+    // The details belong to the title record every copy shares, so all copies of it move to the new record
+    // together. The book objects themselves are kept, so their state, history, waitlist, decorations and
+    // every reference to them stay intact. An ISBN that already belongs to another title is rejected.
+    public long updateBook(String bookId, long expectedVersion, String newTitle, String newAuthor,
+                           String newCategory, String newIsbn) throws LibraryException {
+        K2558859_Book book = findBookById(bookId);
+        if (book == null) throw new BookNotFoundException(bookId);
+
+        K2558859_Title oldRecord = book.getTitleRecord();
+        String isbnKey = newIsbn != null && !newIsbn.trim().isEmpty() ? normalizeIsbn(newIsbn) : null;
+        if (isbnKey != null) {
+            K2558859_Title indexed = titlesByIsbn.get(isbnKey);
+            if (indexed != null && indexed != oldRecord) {
+                throw new InvalidOperationException("ISBN " + newIsbn + " already belongs to '" +
+                                                    indexed.getTitle() + "'.");
+            }
         }
+        K2558859_Title newRecord = new K2558859_Title(newTitle, newAuthor, newCategory, newIsbn,
+                                                      oldRecord.getBookMetadata());
+        if (!book.updateTitleRecord(newRecord, expectedVersion)) {
+            throw new ConcurrentUpdateException(book.getBookId(), expectedVersion, book.getVersion());
+        }
+        // Only the copies of this title are touched, however large the catalogue is
+        for (K2558859_Book copy : oldRecord.getCopies()) {
+            moveToTitleRecord(copy, oldRecord, newRecord);
+        }
+        if (isbnKey != null) {
+            titlesByIsbn.compute(isbnKey, (key, current) ->
+                current == null || current == oldRecord ? newRecord : current);
+        }
+        unindexTitle(oldRecord);
+        return book.getVersion();
+    }
 
-        // Add updated book
-        books.add(updatedBook);
-
-        System.out.println("\nBook updated successfully!");
-        System.out.println("Previous: '" + oldTitle + "'");
-        System.out.println("Updated:  '" + newTitle + "'");
+    // Moves a copy from one title record to another, unless it has meanwhile been given a different record
+    private static void moveToTitleRecord(K2558859_Book copy, K2558859_Title from, K2558859_Title to) {
+        while (copy.getTitleRecord() == from) {
+            if (copy.updateTitleRecord(to, copy.getVersion())) {
+                return;
+            }
+        }
     }
 
     // ----- User Management -----
@@ -122,96 +336,309 @@ public class K2558859_LibraryManagementSystem {
     // Registers a new user in the library system
     public void registerUser(K2558859_User user) {
         users.add(user);
-        System.out.println("User '" + user.getName() + "' registered successfully as " + 
-                         util.ValidationUtil.removeClassPrefix(user.getClass().getSimpleName()) + ".");
+        usersById.putIfAbsent(idKey(user.getUserId()), user);
+        Output.info("User '" + user.getName() + "' registered successfully as " + 
+                         user.getMembershipType() + ".");
     }
 
     // Removes a user from the library system
     public void removeUser(String userId) {
         K2558859_User user = findUserById(userId);
         if (user == null) {
-            System.out.println("Error: User with ID " + userId + " not found.");
+            Output.error("Error: User with ID " + userId + " not found.");
             return;
         }
 
         // Check if user has active borrows
         if (user.getActiveBorrowCount() > 0) {
-            System.out.println("Error: Cannot remove user '" + user.getName() + 
+            Output.error("Error: Cannot remove user '" + user.getName() + 
                              "' as they have active borrowed books.");
             return;
         }
 
         users.remove(user);
-        System.out.println("User '" + user.getName() + "' removed successfully.");
+        usersById.remove(idKey(user.getUserId()), user);
+        Output.info("User '" + user.getName() + "' removed successfully.");
     }
 
     // ----- Borrowing Operations (Using Command Pattern) -----
 
     // Borrows a book for a user using Command Pattern
-    public void borrowBook(String bookId, String userId) {
-        try {
-            K2558859_Book book = findBookById(bookId);
-            K2558859_User user = findUserById(userId);
-            if (book == null) throw new BookNotFoundException(bookId);
-            if (user == null) throw new UserNotFoundException(userId);
+    public K2558859_CommandResult borrowBook(String bookId, String userId) {
+        K2558859_Book book = findBookById(bookId);
+        if (book == null) return K2558859_CommandResult.bookNotFound(bookId).report();
+        K2558859_User user = findUserById(userId);
+        if (user == null) return K2558859_CommandResult.userNotFound(userId).report();
 
-            K2558859_Command borrowCommand = new K2558859_BorrowCommand(user, book);
-            commandInvoker.executeCommand(borrowCommand);
-        } catch (LibraryException e) {
-            System.out.println("\nError: " + e.getMessage());
-        }
+        K2558859_Command borrowCommand = new K2558859_BorrowCommand(user, book);
+        return dispatch(borrowCommand);
     }
 
     // Returns a book using Command Pattern
-    public void returnBook(String bookId, String userId) {
-        try {
-            K2558859_Book book = findBookById(bookId);
-            K2558859_User user = findUserById(userId);
-            if (book == null) throw new BookNotFoundException(bookId);
-            if (user == null) throw new UserNotFoundException(userId);
+    public K2558859_CommandResult returnBook(String bookId, String userId) {
+        K2558859_Book book = findBookById(bookId);
+        if (book == null) return K2558859_CommandResult.bookNotFound(bookId).report();
+        K2558859_User user = findUserById(userId);
+        if (user == null) return K2558859_CommandResult.userNotFound(userId).report();
 
-            K2558859_Command returnCommand = new K2558859_ReturnCommand(user, book);
-            commandInvoker.executeCommand(returnCommand);
-        } catch (LibraryException e) {
-            System.out.println("\nError: " + e.getMessage());
-        }
+        K2558859_Command returnCommand = new K2558859_ReturnCommand(user, book);
+        return dispatch(returnCommand);
     }
 
     // Reserves a book for a user using Command Pattern
-    public void reserveBook(String bookId, String userId) {
+    public K2558859_CommandResult reserveBook(String bookId, String userId) {
+        K2558859_Book book = findBookById(bookId);
+        if (book == null) return K2558859_CommandResult.bookNotFound(bookId).report();
+        K2558859_User user = findUserById(userId);
+        if (user == null) return K2558859_CommandResult.userNotFound(userId).report();
+
+        K2558859_Command reserveCommand = new K2558859_ReserveCommand(user, book);
+        return dispatch(reserveCommand);
+    }
+
+    // Cancels a book reservation using Command Pattern
+    public K2558859_CommandResult cancelReservation(String bookId, String userId) {
+        K2558859_Book book = findBookById(bookId);
+        if (book == null) return K2558859_CommandResult.bookNotFound(bookId).report();
+        K2558859_User user = findUserById(userId);
+        if (user == null) return K2558859_CommandResult.userNotFound(userId).report();
+
+        K2558859_Command cancelCommand = new K2558859_CancelReservationCommand(user, book);
+        return dispatch(cancelCommand);
+    }
+
+    // Gets a user's place in a book's reservation queue: 0 if the book is on hold for them,
+    // 1 for the head of the queue, or -1 if they are not waiting for it
+    public int getReservationPosition(String bookId, String userId) throws LibraryException {
+        K2558859_Book book = findBookById(bookId);
+        K2558859_User user = findUserById(userId);
+        if (book == null) throw new BookNotFoundException(bookId);
+        if (user == null) throw new UserNotFoundException(userId);
+        return book.getReservationQueue().getPosition(user.getUserId());
+    }
+
+    // ----- Holds -----
+
+    // Sets how long a returned book stays on hold for the next patron in its queue
+    public void setHoldWindow(Duration holdWindow) {
+        if (holdWindow == null || holdWindow.isNegative() || holdWindow.isZero()) {
+            throw new IllegalArgumentException("Hold window must be positive.");
+        }
+        this.holdWindow = holdWindow;
+    }
+
+    public Duration getHoldWindow() {
+        return holdWindow;
+    }
+
+    // Starts the pickup window of a new hold and indexes it for expiry
+    public void holdPlaced(K2558859_Reservation reservation) {
+        reservation.startHold(LocalDateTime.now().plus(holdWindow));
+        if (holdExpirySweeper != null) {
+            holdExpirySweeper.track(reservation);
+        }
+    }
+
+    // Drops a hold that was collected, cancelled or expired from the expiry index
+    public void holdEnded(K2558859_Reservation reservation) {
+        if (holdExpirySweeper != null) {
+            holdExpirySweeper.untrack(reservation);
+        }
+    }
+
+    // Starts expiring unclaimed holds in the background and indexes the holds already placed
+    public void enableHoldExpiry() {
+        if (holdExpirySweeper != null) {
+            return;
+        }
+        holdExpirySweeper = new K2558859_HoldExpirySweeper(
+            expired -> runBackgroundWork(
+                () -> dispatch(new K2558859_ExpireHoldsCommand(expired, this::retryHoldExpiry))),
+            ZoneId.systemDefault());
+        for (K2558859_Book book : books.liveView()) {
+            K2558859_Reservation holder = book.getReservationQueue().getHolder();
+            if (holder != null) {
+                holdExpirySweeper.track(holder);
+            }
+        }
+        holdExpirySweeper.start(K2558859_HoldExpirySweeper.DEFAULT_SWEEP_INTERVAL_MILLIS);
+    }
+
+    // Indexes a hold that failed to expire again, so the next sweep retries it
+    private void retryHoldExpiry(K2558859_Reservation reservation) {
+        K2558859_HoldExpirySweeper sweeper = holdExpirySweeper;
+        if (sweeper != null) {
+            sweeper.track(reservation);
+        }
+    }
+
+    // Sets the lock that hold expiry and due-date reminders hold while they change the library from their
+    // own threads; a server that guards its requests with a read/write lock passes its write lock here
+    public void setBackgroundLock(Lock lock) {
+        this.backgroundLock = lock;
+    }
+
+    // Runs work started by a background thread under the background lock, if one is set
+    private void runBackgroundWork(Runnable work) {
+        Lock lock = backgroundLock;
+        if (lock == null) {
+            work.run();
+            return;
+        }
+        lock.lock();
         try {
-            K2558859_Book book = findBookById(bookId);
-            K2558859_User user = findUserById(userId);
-            if (book == null) throw new BookNotFoundException(bookId);
-            if (user == null) throw new UserNotFoundException(userId);
+            work.run();
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            K2558859_Command reserveCommand = new K2558859_ReserveCommand(user, book);
-            commandInvoker.executeCommand(reserveCommand);
-        } catch (LibraryException e) {
-            System.out.println("\nError: " + e.getMessage());
+    // Stops expiring holds
+    public void disableHoldExpiry() {
+        if (holdExpirySweeper != null) {
+            holdExpirySweeper.shutdown();
+            holdExpirySweeper = null;
         }
     }
 
-    // Cancels a book reservation using Command Pattern
-    public void cancelReservation(String bookId, String userId) {
+    // Gets the hold expiry sweeper, or null when holds never expire
+    public K2558859_HoldExpirySweeper getHoldExpirySweeper() {
+        return holdExpirySweeper;
+    }
+
+    // Borrows several books for a user as one transaction using Command Pattern
+    public K2558859_CommandResult borrowBooks(List<String> bookIds, String userId) {
+        K2558859_User user = findUserById(userId);
+        if (user == null) return K2558859_CommandResult.userNotFound(userId).report();
+        List<K2558859_Book> batch;
         try {
-            K2558859_Book book = findBookById(bookId);
-            K2558859_User user = findUserById(userId);
-            if (book == null) throw new BookNotFoundException(bookId);
-            if (user == null) throw new UserNotFoundException(userId);
+            batch = findBooksByIds(bookIds);
+        } catch (BookNotFoundException e) {
+            return K2558859_CommandResult.rejected(e.getMessage()).report();
+        }
 
-            K2558859_Command cancelCommand = new K2558859_CancelReservationCommand(user, book);
-            commandInvoker.executeCommand(cancelCommand);
-        } catch (LibraryException e) {
-            System.out.println("\nError: " + e.getMessage());
+        K2558859_Command batchBorrowCommand = new K2558859_BatchBorrowCommand(user, batch);
+        return dispatch(batchBorrowCommand);
+    }
+
+    // Returns several books for a user as one transaction using Command Pattern
+    public K2558859_CommandResult returnBooks(List<String> bookIds, String userId) {
+        K2558859_User user = findUserById(userId);
+        if (user == null) return K2558859_CommandResult.userNotFound(userId).report();
+        List<K2558859_Book> batch;
+        try {
+            batch = findBooksByIds(bookIds);
+        } catch (BookNotFoundException e) {
+            return K2558859_CommandResult.rejected(e.getMessage()).report();
         }
+
+        K2558859_Command batchReturnCommand = new K2558859_BatchReturnCommand(user, batch);
+        return dispatch(batchReturnCommand);
+    }
+
+    // Undoes the most recent circulation command
+    public void undoLastCommand() {
+        synchronized (commandInvoker) {
+            if (commandEventLoop != null) {
+                Output.error("\nError: Undo is not available while the command event loop is running.");
+                return;
+            }
+            commandInvoker.undo();
+        }
+    }
+
+    // Re-applies the most recently undone circulation command
+    public void redoLastCommand() {
+        synchronized (commandInvoker) {
+            if (commandEventLoop != null) {
+                Output.error("\nError: Redo is not available while the command event loop is running.");
+                return;
+            }
+            commandInvoker.redo();
+        }
+    }
+
+    // Runs a command on the event loop when enabled (its result is then only QUEUED), otherwise directly
+    // through the invoker
+    private K2558859_CommandResult dispatch(K2558859_Command command) {
+        while (true) {
+            K2558859_CommandEventLoop loop = commandEventLoop;
+            if (loop != null) {
+                if (loop.publish(command)) {
+                    return K2558859_CommandResult.queued();
+                }
+                // The loop is being stopped: let it drain, then run the command directly
+                loop.awaitStopped();
+            }
+            // Background work such as hold expiry also dispatches, so commands run one at a time
+            synchronized (commandInvoker) {
+                if (commandEventLoop == null) {
+                    return commandInvoker.executeCommand(command);
+                }
+            }
+            // The event loop was started in the meantime; publish to it instead
+        }
+    }
+
+    // ----- Command Engine -----
+
+    // Switches circulation commands to a single-writer event loop with the given wait strategy
+    // Only circulation commands (borrow, return, reserve, cancel, their batch forms and hold expiry) go through
+    // the loop; catalogue and user changes such as addBook, updateBook or registerUser still run on the
+    // caller's thread and must not race the loop. Undo and redo are refused while it runs.
+    public void enableCommandEventLoop(K2558859_WaitStrategy waitStrategy) {
+        synchronized (commandInvoker) {
+            if (commandEventLoop != null) {
+                Output.info("Command event loop is already running.");
+                return;
+            }
+            K2558859_CommandEventLoop loop = new K2558859_CommandEventLoop(waitStrategy);
+            loop.start();
+            commandEventLoop = loop;
+        }
+        Output.info("Command event loop started (" + waitStrategy + ").");
+    }
+
+    // Drains the event loop and returns to executing commands on the caller's thread
+    // Commands dispatched while it drains wait for it to stop and then run directly
+    public void disableCommandEventLoop() {
+        K2558859_CommandEventLoop loop;
+        synchronized (commandInvoker) {
+            loop = commandEventLoop;
+            if (loop == null) {
+                return;
+            }
+            loop.shutdown();
+            commandEventLoop = null;
+        }
+        Output.info("Command event loop stopped after " + loop.getExecutedCount() +
+                         " commands in " + loop.getBatchCount() + " batches.");
+    }
+
+    // Waits until every command published to the event loop has been applied
+    public void awaitCommandsProcessed() {
+        K2558859_CommandEventLoop loop = commandEventLoop;
+        if (loop != null) {
+            loop.awaitProcessed();
+        }
+    }
+
+    public boolean isCommandEventLoopEnabled() {
+        return commandEventLoop != null;
     }
 
     // ----- Report Generation -----
 
-    // Generates different types of reports for librarians
+    // Generates different types of reports for librarians and keeps them in the report archive
     public K2558859_Report generateReport(String reportType) {
-        K2558859_Report report = new K2558859_Report("REP-" + System.currentTimeMillis(), reportType);
+        K2558859_Report report = buildReport(reportType);
+        reports.add(report);
+        return report;
+    }
+
+    // Generates a report without archiving it, for callers such as the API that only display it
+    public K2558859_Report buildReport(String reportType) {
+        K2558859_Report report = new K2558859_Report(idGenerator.nextId("REP"), reportType);
 
         switch (reportType) {
             case "Most Borrowed Books":
@@ -228,7 +655,6 @@ public class K2558859_LibraryManagementSystem {
         }
 
         report.generate();
-        reports.add(report);
         return report;
     }
 
@@ -237,7 +663,7 @@ public class K2558859_LibraryManagementSystem {
         Map<String, Integer> borrowCounts = new HashMap<>();
 
         // Count borrows for each book
-        for (K2558859_BorrowRecord record : borrowRecords) {
+        for (K2558859_BorrowRecord record : borrowRecords.snapshot()) {
             String bookId = record.getBook().getBookId();
             borrowCounts.put(bookId, borrowCounts.getOrDefault(bookId, 0) + 1);
         }
@@ -273,16 +699,17 @@ public class K2558859_LibraryManagementSystem {
             "User ID", "Name", "User Type", "Active Borrows"));
         report.addLine("----------------------------------------------------------------------");
 
-        for (K2558859_User user : users) {
+        List<K2558859_User> userSnapshot = users.snapshot();
+        for (K2558859_User user : userSnapshot) {
             int activeBorrows = user.getActiveBorrowCount();
             if (activeBorrows > 0) {
                 report.addLine(String.format("%-10s %-20s %-15s %-15d", 
                     user.getUserId(), user.getName(), 
-                    util.ValidationUtil.removeClassPrefix(user.getClass().getSimpleName()), activeBorrows));
+                    user.getMembershipType(), activeBorrows));
             }
         }
 
-        if (users.stream().noneMatch(u -> u.getActiveBorrowCount() > 0)) {
+        if (userSnapshot.stream().noneMatch(u -> u.getActiveBorrowCount() > 0)) {
             report.addLine("No active borrowers found.");
         }
     }
@@ -298,7 +725,7 @@ public class K2558859_LibraryManagementSystem {
         report.addLine("----------------------------------------------------------------------");
 
         boolean hasOverdue = false;
-        for (K2558859_BorrowRecord record : borrowRecords) {
+        for (K2558859_BorrowRecord record : borrowRecords.snapshot()) {
             if (record.getReturnDate() == null && record.isOverdue(today)) {
                 double fine = record.calculateFine(record.getUser().getFineStrategy(), today);
                 report.addLine(String.format("%-10s %-25s %-20s %-12s %-10.2f", 
@@ -317,20 +744,29 @@ public class K2558859_LibraryManagementSystem {
     }
 
 
-    // Finds a book by its ID
-    private K2558859_Book findBookById(String bookId) {
-        return books.stream()
-            .filter(book -> book.getBookId().equalsIgnoreCase(bookId))
-            .findFirst()
-            .orElse(null);
+    // Finds a book by its ID, ignoring case (O(1))
+    public K2558859_Book findBookById(String bookId) {
+        return bookId == null ? null : booksById.get(idKey(bookId));
     }
 
-    // Finds a user by their ID
-    private K2558859_User findUserById(String userId) {
-        return users.stream()
-            .filter(user -> user.getUserId().equalsIgnoreCase(userId))
-            .findFirst()
-            .orElse(null);
+    // Finds several books by ID, keeping the requested order
+    private List<K2558859_Book> findBooksByIds(List<String> bookIds) throws BookNotFoundException {
+        List<K2558859_Book> found = new ArrayList<>(bookIds.size());
+        for (String bookId : bookIds) {
+            K2558859_Book book = findBookById(bookId);
+            if (book == null) throw new BookNotFoundException(bookId);
+            found.add(book);
+        }
+        return found;
+    }
+
+    // Finds a user by their ID, ignoring case (O(1))
+    public K2558859_User findUserById(String userId) {
+        return userId == null ? null : usersById.get(idKey(userId));
+    }
+
+    private static String idKey(String id) {
+        return id.toLowerCase();
     }
 
     // ----- Librarian Management -----
@@ -338,19 +774,19 @@ public class K2558859_LibraryManagementSystem {
     // Registers a new librarian in the library system
     public void registerLibrarian(K2558859_Librarian librarian) {
         librarians.add(librarian);
-        System.out.println("Librarian '" + librarian.getName() + "' registered successfully.");
+        Output.info("Librarian '" + librarian.getName() + "' registered successfully.");
     }
 
     // Removes a librarian from the library system
     public void removeLibrarian(String librarianId) {
         K2558859_Librarian librarian = findLibrarianById(librarianId);
         if (librarian == null) {
-            System.out.println("Error: Librarian with ID " + librarianId + " not found.");
+            Output.error("Error: Librarian with ID " + librarianId + " not found.");
             return;
         }
 
         librarians.remove(librarian);
-        System.out.println("Librarian '" + librarian.getName() + "' removed successfully.");
+        Output.info("Librarian '" + librarian.getName() + "' removed successfully.");
     }
 
     // Finds a librarian by their ID
@@ -362,21 +798,22 @@ public class K2558859_LibraryManagementSystem {
     }
 
     // ----- Getters -----
+    // Collection getters return immutable snapshots shared until the next mutation; do not modify them
 
     public List<K2558859_Book> getBooks() {
-        return new ArrayList<>(books);
+        return books.snapshot();
     }
 
     public List<K2558859_User> getUsers() {
-        return new ArrayList<>(users);
+        return users.snapshot();
     }
 
     public List<K2558859_BorrowRecord> getBorrowRecords() {
-        return new ArrayList<>(borrowRecords);
+        return borrowRecords.snapshot();
     }
 
     public List<K2558859_Reservation> getReservations() {
-        return new ArrayList<>(reservations);
+        return reservations.snapshot();
     }
 
     // Adds a reservation to the library's reservation list
@@ -386,21 +823,245 @@ public class K2558859_LibraryManagementSystem {
         }
     }
 
+    // Removes a reservation from the library's reservation list
+    public void removeReservation(K2558859_Reservation reservation) {
+        if (reservation != null) {
+            reservations.remove(reservation);
+        }
+    }
+
+    // Finds a user's reservation for a book, or null
+    public K2558859_Reservation findReservation(String bookId, String userId) {
+        return reservations.find(bookId, userId);
+    }
+
+    // Finds a reservation by its ID, or null
+    public K2558859_Reservation findReservationById(String reservationId) {
+        return reservations.findById(reservationId);
+    }
+
+    // Gets every reservation for a book, oldest first
+    public List<K2558859_Reservation> getReservationsForBook(String bookId) {
+        return reservations.findByBook(bookId);
+    }
+
+    // Gets every reservation made by a user, oldest first
+    public List<K2558859_Reservation> getReservationsForUser(String userId) {
+        return reservations.findByUser(userId);
+    }
+
     public List<K2558859_Report> getReports() {
-        return new ArrayList<>(reports);
+        return reports.snapshot();
+    }
+
+    // Removes a generated report from the archive; returns false if it was not archived
+    public boolean removeReport(K2558859_Report report) {
+        return reports.remove(report);
+    }
+
+    // ----- Paged and Streaming Queries -----
+
+    // Gets one page of books in insertion order
+    public K2558859_Page<K2558859_Book> getBooksPage(int pageNumber, int pageSize) {
+        return page(books.snapshot(), pageNumber, pageSize, null);
+    }
+
+    // Gets one page of books in the given sort order
+    public K2558859_Page<K2558859_Book> getBooksPage(int pageNumber, int pageSize, Comparator<? super K2558859_Book> order) {
+        return page(books.snapshot(), pageNumber, pageSize, order);
+    }
+
+    // Gets one page of users in insertion order
+    public K2558859_Page<K2558859_User> getUsersPage(int pageNumber, int pageSize) {
+        return page(users.snapshot(), pageNumber, pageSize, null);
+    }
+
+    // Gets one page of users in the given sort order
+    public K2558859_Page<K2558859_User> getUsersPage(int pageNumber, int pageSize, Comparator<? super K2558859_User> order) {
+        return page(users.snapshot(), pageNumber, pageSize, order);
+    }
+
+    // Gets one page of borrow records in insertion order
+    public K2558859_Page<K2558859_BorrowRecord> getBorrowRecordsPage(int pageNumber, int pageSize) {
+        return page(borrowRecords.snapshot(), pageNumber, pageSize, null);
+    }
+
+    // Gets one page of borrow records in the given sort order
+    public K2558859_Page<K2558859_BorrowRecord> getBorrowRecordsPage(int pageNumber, int pageSize,
+                                                                     Comparator<? super K2558859_BorrowRecord> order) {
+        return page(borrowRecords.snapshot(), pageNumber, pageSize, order);
+    }
+
+    // Gets one page of reservations in insertion order
+    public K2558859_Page<K2558859_Reservation> getReservationsPage(int pageNumber, int pageSize) {
+        return page(reservations.snapshot(), pageNumber, pageSize, null);
+    }
+
+    // Gets one page of reservations in the given sort order
+    public K2558859_Page<K2558859_Reservation> getReservationsPage(int pageNumber, int pageSize,
+                                                                   Comparator<? super K2558859_Reservation> order) {
+        return page(reservations.snapshot(), pageNumber, pageSize, order);
+    }
+
+    // Streams lazily over the current snapshot of books without copying it
+    public Stream<K2558859_Book> streamBooks() {
+        return books.snapshot().stream();
+    }
+
+    // Streams lazily over the current snapshot of users without copying it
+    public Stream<K2558859_User> streamUsers() {
+        return users.snapshot().stream();
+    }
+
+    // Streams lazily over the current snapshot of borrow records without copying it
+    public Stream<K2558859_BorrowRecord> streamBorrowRecords() {
+        return borrowRecords.snapshot().stream();
+    }
+
+    // Streams lazily over the current snapshot of reservations without copying it
+    public Stream<K2558859_Reservation> streamReservations() {
+        return reservations.snapshot().stream();
+    }
+
+    // Cuts one page out of a snapshot; sorted pages keep only the first (pageNumber + 1) * pageSize items in a heap
+    private static <T> K2558859_Page<T> page(List<T> snapshot, int pageNumber, int pageSize, Comparator<? super T> order) {
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Invalid page request: page " + pageNumber + ", size " + pageSize);
+        }
+        int total = snapshot.size();
+        long start = (long) pageNumber * pageSize;
+        if (start >= total) {
+            return new K2558859_Page<>(Collections.emptyList(), pageNumber, pageSize, total);
+        }
+        int end = (int) Math.min(total, start + pageSize);
+
+        if (order == null) {
+            return new K2558859_Page<>(snapshot.subList((int) start, end), pageNumber, pageSize, total);
+        }
+
+        // Bounded max-heap of the smallest 'end' items: O(n log k) instead of sorting the whole collection
+        Comparator<? super T> reversed = Collections.reverseOrder(order);
+        PriorityQueue<T> smallest = new PriorityQueue<>(end, reversed);
+        for (T item : snapshot) {
+            if (smallest.size() < end) {
+                smallest.add(item);
+            } else if (order.compare(item, smallest.peek()) < 0) {
+                smallest.poll();
+                smallest.add(item);
+            }
+        }
+        List<T> firstItems = new ArrayList<>(smallest);
+        firstItems.sort(order);
+        return new K2558859_Page<>(new ArrayList<>(firstItems.subList((int) start, end)), pageNumber, pageSize, total);
+    }
+
+    // Gets a consistent view of all collections, rebuilt only after something has changed
+    public K2558859_LibrarySnapshot snapshot() {
+        List<K2558859_Book> bookSnapshot = books.snapshot();
+        List<K2558859_User> userSnapshot = users.snapshot();
+        List<K2558859_BorrowRecord> recordSnapshot = borrowRecords.snapshot();
+        List<K2558859_Reservation> reservationSnapshot = reservations.snapshot();
+        List<K2558859_Report> reportSnapshot = reports.snapshot();
+
+        K2558859_LibrarySnapshot current = snapshot;
+        if (current == null || !current.isBuiltFrom(bookSnapshot, userSnapshot, recordSnapshot,
+                                                     reservationSnapshot, reportSnapshot)) {
+            long version = books.getVersion() + users.getVersion() + borrowRecords.getVersion() +
+                           reservations.getVersion() + reports.getVersion();
+            current = new K2558859_LibrarySnapshot(version, bookSnapshot, userSnapshot, recordSnapshot,
+                                                   reservationSnapshot, reportSnapshot);
+            snapshot = current;
+        }
+        return current;
     }
 
     public List<K2558859_Librarian> getLibrarians() {
         return new ArrayList<>(librarians);
     }
 
+    public K2558859_NotificationService getNotificationService() {
+        return notificationService;
+    }
+
     public static K2558859_LibraryManagementSystem getInstance() {
         return instance;
     }
 
+    // ----- IDs -----
+
+    // Generates a unique ID with the given prefix from the current library's generator
+    // (or the shared default when no library has been created)
+    public static String nextId(String prefix) {
+        K2558859_LibraryManagementSystem library = instance;
+        return (library != null ? library.idGenerator : DEFAULT_ID_GENERATOR).nextId(prefix);
+    }
+
+    // Replaces the ID generator, e.g. with one using this installation's node ID
+    public void setIdGenerator(IdGenerator idGenerator) {
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("ID generator must not be null.");
+        }
+        this.idGenerator = idGenerator;
+    }
+
+    public IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
     public void addBorrowRecord(K2558859_BorrowRecord record) {
         if (record != null) {
             borrowRecords.add(record);
+            if (reminderScheduler != null) {
+                reminderScheduler.schedule(record);
+            }
+        }
+    }
+
+    // Removes a borrow record from the global list (used when a checkout is rolled back)
+    public void removeBorrowRecord(K2558859_BorrowRecord record) {
+        borrowRecords.remove(record);
+        if (reminderScheduler != null) {
+            reminderScheduler.cancel(record);
         }
     }
+
+    // Keeps due-date reminders in step when a loan is returned or reopened
+    public void loanStatusChanged(K2558859_BorrowRecord record) {
+        if (reminderScheduler == null) {
+            return;
+        }
+        if (record.getReturnDate() != null) {
+            reminderScheduler.cancel(record);
+        } else {
+            reminderScheduler.schedule(record);
+        }
+    }
+
+    // ----- Due Date Reminders -----
+
+    // Starts automatic due-date reminders and schedules them for every loan that is still open
+    public void enableDueDateReminders() {
+        if (reminderScheduler != null) {
+            return;
+        }
+        reminderScheduler = new K2558859_DueDateReminderScheduler(notificationService);
+        reminderScheduler.setTaskRunner(this::runBackgroundWork);
+        for (K2558859_BorrowRecord record : borrowRecords.liveView()) {
+            reminderScheduler.schedule(record);
+        }
+        reminderScheduler.start();
+    }
+
+    // Stops automatic due-date reminders
+    public void disableDueDateReminders() {
+        if (reminderScheduler != null) {
+            reminderScheduler.shutdown();
+            reminderScheduler = null;
+        }
+    }
+
+    // Gets the reminder scheduler, or null when automatic reminders are off
+    public K2558859_DueDateReminderScheduler getReminderScheduler() {
+        return reminderScheduler;
+    }
 }
@@ -0,0 +1,62 @@
+package service;
+
+import model.book.K2558859_Book;
+import model.user.K2558859_User;
+import model.borrow.K2558859_BorrowRecord;
+import model.reservation.K2558859_Reservation;
+import model.report.K2558859_Report;
+import java.util.List;
+
+// K2558859_LibrarySnapshot - Immutable, versioned point-in-time view of the library's collections
+public class K2558859_LibrarySnapshot {
+    private final long version;
+    private final List<K2558859_Book> books;
+    private final List<K2558859_User> users;
+    private final List<K2558859_BorrowRecord> borrowRecords;
+    private final List<K2558859_Reservation> reservations;
+    private final List<K2558859_Report> reports;
+
+    // Constructor for K2558859_LibrarySnapshot
+    K2558859_LibrarySnapshot(long version, List<K2558859_Book> books, List<K2558859_User> users,
+                             List<K2558859_BorrowRecord> borrowRecords, List<K2558859_Reservation> reservations,
+                             List<K2558859_Report> reports) {
+        this.version = version;
+        this.books = books;
+        this.users = users;
+        this.borrowRecords = borrowRecords;
+        this.reservations = reservations;
+        this.reports = reports;
+    }
+
+    // Checks whether this snapshot was built from exactly these collection snapshots
+    boolean isBuiltFrom(List<K2558859_Book> books, List<K2558859_User> users, List<K2558859_BorrowRecord> borrowRecords,
+                        List<K2558859_Reservation> reservations, List<K2558859_Report> reports) {
+        return this.books == books && this.users == users && this.borrowRecords == borrowRecords &&
+               this.reservations == reservations && this.reports == reports;
+    }
+
+    // Getters
+    public long getVersion() {
+        return version;
+    }
+
+    public List<K2558859_Book> getBooks() {
+        return books;
+    }
+
+    public List<K2558859_User> getUsers() {
+        return users;
+    }
+
+    public List<K2558859_BorrowRecord> getBorrowRecords() {
+        return borrowRecords;
+    }
+
+    public List<K2558859_Reservation> getReservations() {
+        return reservations;
+    }
+
+    public List<K2558859_Report> getReports() {
+        return reports;
+    }
+}
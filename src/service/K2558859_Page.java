@@ -0,0 +1,52 @@
+package service;
+
+import java.util.List;
+
+// K2558859_Page - One page of results from a paged query on the library service
+public class K2558859_Page<T> {
+    private final List<T> items;
+    private final int pageNumber;
+    private final int pageSize;
+    private final int totalItems;
+
+    // Constructor for K2558859_Page; page numbers start at 0
+    public K2558859_Page(List<T> items, int pageNumber, int pageSize, int totalItems) {
+        this.items = items;
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+        this.totalItems = totalItems;
+    }
+
+    // Getters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotalItems() {
+        return totalItems;
+    }
+
+    public int getTotalPages() {
+        return totalItems == 0 ? 0 : (totalItems + pageSize - 1) / pageSize;
+    }
+
+    public boolean hasNext() {
+        return (long) (pageNumber + 1) * pageSize < totalItems;
+    }
+
+    public boolean hasPrevious() {
+        return pageNumber > 0;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,118 @@
+package service;
+
+import model.reservation.K2558859_Reservation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// K2558859_ReservationStore - The library's reservations, indexed by reservation ID, book and user
+// Adding, removing and every lookup are O(1) hash operations. Like SnapshotList, readers get an
+// immutable snapshot in insertion order that is shared until the next change.
+public class K2558859_ReservationStore {
+    private final Map<String, K2558859_Reservation> byId = new LinkedHashMap<>();
+    private final Map<String, Map<String, K2558859_Reservation>> byBook = new HashMap<>();
+    private final Map<String, Map<String, K2558859_Reservation>> byUser = new HashMap<>();
+    private volatile List<K2558859_Reservation> snapshot = Collections.emptyList();
+    private volatile long version;
+
+    // Adds a reservation; a second reservation with the same ID is rejected
+    public synchronized void add(K2558859_Reservation reservation) {
+        K2558859_Reservation existing = byId.putIfAbsent(reservation.getReservationId(), reservation);
+        if (existing != null) {
+            if (existing != reservation) {
+                throw new IllegalStateException("Duplicate reservation ID: " + reservation.getReservationId());
+            }
+            return;
+        }
+        String bookId = reservation.getBook().getBookId();
+        String userId = reservation.getUser().getUserId();
+        byBook.computeIfAbsent(bookId, key -> new LinkedHashMap<>()).put(userId, reservation);
+        byUser.computeIfAbsent(userId, key -> new LinkedHashMap<>()).put(bookId, reservation);
+        changed();
+    }
+
+    // Removes a reservation from every index; returns false if it was not stored
+    public synchronized boolean remove(K2558859_Reservation reservation) {
+        if (!byId.remove(reservation.getReservationId(), reservation)) {
+            return false;
+        }
+        String bookId = reservation.getBook().getBookId();
+        String userId = reservation.getUser().getUserId();
+        removeFromIndex(byBook, bookId, userId);
+        removeFromIndex(byUser, userId, bookId);
+        changed();
+        return true;
+    }
+
+    private static void removeFromIndex(Map<String, Map<String, K2558859_Reservation>> index, String key,
+                                        String innerKey) {
+        Map<String, K2558859_Reservation> group = index.get(key);
+        if (group != null) {
+            group.remove(innerKey);
+            if (group.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // ----- Lookups -----
+
+    public synchronized K2558859_Reservation findById(String reservationId) {
+        return byId.get(reservationId);
+    }
+
+    // Finds a user's reservation for a book, or null
+    public synchronized K2558859_Reservation find(String bookId, String userId) {
+        Map<String, K2558859_Reservation> forBook = byBook.get(bookId);
+        return forBook == null ? null : forBook.get(userId);
+    }
+
+    // Gets every reservation for a book, oldest first
+    public synchronized List<K2558859_Reservation> findByBook(String bookId) {
+        Map<String, K2558859_Reservation> forBook = byBook.get(bookId);
+        return forBook == null ? Collections.emptyList() : new ArrayList<>(forBook.values());
+    }
+
+    // Gets every reservation made by a user, oldest first
+    public synchronized List<K2558859_Reservation> findByUser(String userId) {
+        Map<String, K2558859_Reservation> forUser = byUser.get(userId);
+        return forUser == null ? Collections.emptyList() : new ArrayList<>(forUser.values());
+    }
+
+    // ----- Snapshots -----
+
+    // Returns an immutable point-in-time copy, shared by all readers until the store changes
+    public List<K2558859_Reservation> snapshot() {
+        List<K2558859_Reservation> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(byId.values()));
+            }
+            return snapshot;
+        }
+    }
+
+    // Gets the number of mutations applied so far
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    private void changed() {
+        version++;
+        snapshot = null;
+    }
+}
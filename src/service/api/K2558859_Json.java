@@ -0,0 +1,122 @@
+package service.api;
+
+// K2558859_Json - Minimal JSON writer for API responses; builds one object or array into a StringBuilder
+// Callers open and close objects and arrays explicitly; separators between members are added automatically.
+public class K2558859_Json {
+    private final StringBuilder json = new StringBuilder(256);
+    private boolean needsComma;
+
+    public K2558859_Json beginObject() {
+        return beginObject(null);
+    }
+
+    // Opens an object; the name is null for an array element or the top-level object
+    public K2558859_Json beginObject(String name) {
+        name(name);
+        json.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    public K2558859_Json endObject() {
+        json.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    public K2558859_Json beginArray(String name) {
+        name(name);
+        json.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    public K2558859_Json endArray() {
+        json.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    public K2558859_Json field(String name, String value) {
+        name(name);
+        if (value == null) {
+            json.append("null");
+        } else {
+            string(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public K2558859_Json field(String name, long value) {
+        name(name);
+        json.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    public K2558859_Json field(String name, boolean value) {
+        name(name);
+        json.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    // Adds a string element to the current array
+    public K2558859_Json value(String value) {
+        separate();
+        string(value);
+        needsComma = true;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+
+    private void name(String name) {
+        separate();
+        if (name != null) {
+            string(name);
+            json.append(':');
+        }
+    }
+
+    private void separate() {
+        if (needsComma) {
+            json.append(',');
+        }
+    }
+
+    private void string(String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
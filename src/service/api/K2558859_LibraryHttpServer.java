@@ -0,0 +1,470 @@
+package service.api;
+
+import command.K2558859_CommandResult;
+import model.book.K2558859_Book;
+import model.book.K2558859_Title;
+import model.borrow.K2558859_BorrowRecord;
+import model.report.K2558859_Report;
+import model.reservation.K2558859_Reservation;
+import model.user.K2558859_User;
+import service.K2558859_LibraryManagementSystem;
+import service.K2558859_Page;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// K2558859_LibraryHttpServer - Embedded HTTP/JSON API on the JDK's built-in HTTP server
+// Endpoints (all under /api):
+//   GET  /health                                   server status and request counters
+//   GET  /books?page=&size=  |  ?tag=  |  ?q=      list, tag lookup or title/author search
+//   GET  /books/{bookId}                           one book
+//   GET  /titles/{isbn}                            copy counts of a title
+//   GET  /users/{userId}                           one user with open loans and reservations
+//   POST /borrow | /return | /reserve | /cancel    with bookId and userId query parameters
+//   GET  /reports/{most-borrowed|active-borrowers|overdue}
+// Each request runs on its own virtual thread where the JDK has them (Java 21+), otherwise on a cached
+// thread pool. The domain model is not built for concurrent mutation, so requests share one coarse
+// read/write lock: lookups and reports run in parallel, circulation runs one at a time. While the server runs,
+// the library's background hold expiry and due-date reminders take the same write lock.
+public class K2558859_LibraryHttpServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int SEARCH_LIMIT = 100;
+
+    private static final Map<String, String> REPORT_TYPES = new HashMap<>();
+
+    static {
+        REPORT_TYPES.put("most-borrowed", "Most Borrowed Books");
+        REPORT_TYPES.put("active-borrowers", "Active Borrowers");
+        REPORT_TYPES.put("overdue", "Overdue Books");
+    }
+
+    private final K2558859_LibraryManagementSystem library;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+    private boolean virtualThreads;
+
+    // Constructor for K2558859_LibraryHttpServer
+    public K2558859_LibraryHttpServer(K2558859_LibraryManagementSystem library) {
+        this.library = library;
+    }
+
+    // Starts serving on the port; port 0 picks a free port
+    public synchronized void start(int port) throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        // Hold expiry and due-date reminders change the same model from their own threads
+        library.setBackgroundLock(lock.writeLock());
+        server.start();
+    }
+
+    // Stops accepting requests, gives open exchanges up to delaySeconds to finish and stops the threads
+    public synchronized void stop(int delaySeconds) {
+        if (server == null) {
+            return;
+        }
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        library.setBackgroundLock(null);
+        server = null;
+        executor = null;
+    }
+
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    public synchronized boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    // Uses a virtual-thread-per-task executor when the running JDK has one (looked up reflectively so the
+    // code still compiles and runs on Java 17), and a cached pool of daemon threads otherwise
+    private ExecutorService newRequestExecutor() {
+        try {
+            Object virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtualThreads = true;
+            return (ExecutorService) virtual;
+        } catch (ReflectiveOperationException e) {
+            virtualThreads = false;
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "library-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // ----- Routing -----
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+            Map<String, String> query;
+            try {
+                query = parseQuery(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException e) {
+                // Malformed percent-encoding in the query string
+                send(exchange, 400, error("Invalid query string: " + e.getMessage()));
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            Response response = route(method, path, query);
+            send(exchange, response.status, response.body);
+        } catch (RuntimeException e) {
+            errorCount.incrementAndGet();
+            send(exchange, 500, error("Internal error: " + e.getMessage()));
+        }
+    }
+
+    private Response route(String method, String[] path, Map<String, String> query) {
+        String resource = path.length > 0 ? path[0] : "";
+        String id = path.length > 1 ? path[1] : null;
+        boolean get = method.equals("GET");
+        boolean post = method.equals("POST");
+        switch (resource) {
+            case "health":
+                return get ? health() : methodNotAllowed();
+            case "books":
+                if (!get) return methodNotAllowed();
+                return id == null ? listBooks(query) : book(id);
+            case "titles":
+                if (!get) return methodNotAllowed();
+                return id == null ? notFound("Missing ISBN") : title(id);
+            case "users":
+                if (!get) return methodNotAllowed();
+                return id == null ? notFound("Missing user ID") : user(id);
+            case "borrow":
+            case "return":
+            case "reserve":
+            case "cancel":
+                return post ? circulate(resource, query) : methodNotAllowed();
+            case "reports":
+                if (!get) return methodNotAllowed();
+                return id == null ? notFound("Missing report type") : report(id);
+            default:
+                return notFound("Unknown resource: " + resource);
+        }
+    }
+
+    // ----- Lookups and reports (shared lock) -----
+
+    private Response health() {
+        return ok(new K2558859_Json().beginObject()
+            .field("status", "UP")
+            .field("virtualThreads", isUsingVirtualThreads())
+            .field("requests", requestCount.get())
+            .field("errors", errorCount.get())
+            .endObject());
+    }
+
+    private Response listBooks(Map<String, String> query) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            List<K2558859_Book> books;
+            K2558859_Json json = new K2558859_Json().beginObject();
+            if (query.containsKey("tag")) {
+                books = library.findBooksByTag(query.get("tag"));
+            } else if (query.containsKey("q")) {
+                books = search(query.get("q"));
+            } else {
+                int page = intParameter(query, "page", 0);
+                int size = Math.min(MAX_PAGE_SIZE, Math.max(1, intParameter(query, "size", DEFAULT_PAGE_SIZE)));
+                K2558859_Page<K2558859_Book> result = library.getBooksPage(page, size);
+                books = result.getItems();
+                json.field("page", result.getPageNumber())
+                    .field("totalPages", result.getTotalPages())
+                    .field("totalItems", result.getTotalItems());
+            }
+            json.beginArray("books");
+            for (K2558859_Book book : books) {
+                writeBook(json.beginObject(), book).endObject();
+            }
+            return ok(json.endArray().endObject());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    // Case-insensitive search on title and author, limited to the first SEARCH_LIMIT matches
+    private List<K2558859_Book> search(String text) {
+        String needle = text.toLowerCase(Locale.ROOT);
+        List<K2558859_Book> matches = new ArrayList<>();
+        for (K2558859_Book book : library.getBooks()) {
+            if (containsText(book.getTitle(), needle) || containsText(book.getAuthor(), needle)) {
+                matches.add(book);
+                if (matches.size() == SEARCH_LIMIT) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Whether a book field contains the lower-case needle; books may have no author or title
+    private static boolean containsText(String field, String needle) {
+        return field != null && field.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private Response book(String bookId) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            K2558859_Book book = library.findBookById(bookId);
+            if (book == null) return notFound("Book with ID '" + bookId + "' not found.");
+            return ok(writeBook(new K2558859_Json().beginObject(), book).endObject());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    private Response title(String isbn) {
+        K2558859_Title title = library.findTitleByIsbn(isbn);
+        if (title == null) return notFound("No title with ISBN '" + isbn + "'.");
+        return ok(new K2558859_Json().beginObject()
+            .field("title", title.getTitle())
+            .field("author", title.getAuthor())
+            .field("isbn", title.getIsbn())
+            .field("copies", title.getCopyCount())
+            .field("available", title.getAvailableCount())
+            .field("borrowed", title.getBorrowedCount())
+            .field("reserved", title.getReservedCount())
+            .field("onHold", title.getOnHoldCount())
+            .endObject());
+    }
+
+    private Response user(String userId) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            K2558859_User user = library.findUserById(userId);
+            if (user == null) return notFound("User with ID '" + userId + "' not found.");
+            K2558859_Json json = new K2558859_Json().beginObject()
+                .field("userId", user.getUserId())
+                .field("name", user.getName())
+                .field("membershipType", user.getMembershipType())
+                .field("activeBorrows", user.getActiveBorrowCount())
+                .beginArray("loans");
+            for (K2558859_BorrowRecord record : user.getBorrowedBooks()) {
+                if (record.getReturnDate() == null) {
+                    json.beginObject()
+                        .field("recordId", record.getRecordId())
+                        .field("bookId", record.getBook().getBookId())
+                        .field("dueDate", record.getDueDate().toString())
+                        .endObject();
+                }
+            }
+            json.endArray().beginArray("reservations");
+            for (K2558859_Reservation reservation : user.getReservations()) {
+                json.beginObject()
+                    .field("reservationId", reservation.getReservationId())
+                    .field("bookId", reservation.getBook().getBookId())
+                    .endObject();
+            }
+            return ok(json.endArray().endObject());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    private Response report(String type) {
+        String reportType = REPORT_TYPES.get(type.toLowerCase(Locale.ROOT));
+        if (reportType == null) return notFound("Unknown report type: " + type);
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            // Reports served over the API are not archived, so repeated reads do not grow the library
+            K2558859_Report report = library.buildReport(reportType);
+            return ok(new K2558859_Json().beginObject()
+                .field("reportId", report.getReportId())
+                .field("type", reportType)
+                .field("content", report.getContent())
+                .endObject());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    // ----- Circulation (exclusive lock) -----
+
+    // Applies a circulation operation and reports whether it took effect
+    private Response circulate(String operation, Map<String, String> query) {
+        String bookId = query.get("bookId");
+        String userId = query.get("userId");
+        if (bookId == null || userId == null) {
+            return badRequest("Both bookId and userId query parameters are required.");
+        }
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            K2558859_Book book = library.findBookById(bookId);
+            K2558859_User user = library.findUserById(userId);
+            if (book == null) return notFound("Book with ID '" + bookId + "' not found.");
+            if (user == null) return notFound("User with ID '" + userId + "' not found.");
+
+            K2558859_CommandResult result;
+            switch (operation) {
+                case "borrow":
+                    result = library.borrowBook(bookId, userId);
+                    break;
+                case "return":
+                    result = library.returnBook(bookId, userId);
+                    break;
+                case "reserve":
+                    result = library.reserveBook(bookId, userId);
+                    break;
+                default:
+                    result = library.cancelReservation(bookId, userId);
+            }
+            // With the event loop on the outcome is not known here, but the book is shown after it ran
+            library.awaitCommandsProcessed();
+            K2558859_Json json = new K2558859_Json().beginObject()
+                .field("operation", operation)
+                .field("applied", result.isApplied())
+                .field("status", result.getStatus().name());
+            if (result.isRejected()) {
+                json.field("rule", result.getRule() != null ? result.getRule().name() : null)
+                    .field("error", result.getMessage());
+            }
+            writeBook(json.beginObject("book"), book).endObject();
+            return new Response(statusCode(result), json.endObject().toString());
+        } finally {
+            write.unlock();
+        }
+    }
+
+    // 200 when applied, 202 when queued for the event loop, 409 when a circulation rule turned it down
+    private static int statusCode(K2558859_CommandResult result) {
+        switch (result.getStatus()) {
+            case APPLIED:
+                return 200;
+            case QUEUED:
+                return 202;
+            case BOOK_NOT_FOUND:
+            case USER_NOT_FOUND:
+                return 404;
+            default:
+                return 409;
+        }
+    }
+
+    // ----- Helpers -----
+
+    private static K2558859_Json writeBook(K2558859_Json json, K2558859_Book book) {
+        json.field("bookId", book.getBookId())
+            .field("title", book.getTitle())
+            .field("author", book.getAuthor())
+            .field("category", book.getCategory())
+            .field("isbn", book.getIsbn())
+            .field("status", book.getAvailabilityStatus().getStateName())
+            .field("version", book.getVersion())
+            .beginArray("tags");
+        for (String tag : book.getBookMetadata().getTags()) {
+            json.value(tag);
+        }
+        return json.endArray();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        try {
+            return query.containsKey(name) ? Integer.parseInt(query.get(name)) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String error(String message) {
+        return new K2558859_Json().beginObject().field("error", message).endObject().toString();
+    }
+
+    private static Response ok(K2558859_Json json) {
+        return new Response(200, json.toString());
+    }
+
+    private static Response notFound(String message) {
+        return new Response(404, error(message));
+    }
+
+    private static Response badRequest(String message) {
+        return new Response(400, error(message));
+    }
+
+    private static Response methodNotAllowed() {
+        return new Response(405, error("Method not allowed"));
+    }
+
+    // Status code and JSON body of a response
+    private static class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
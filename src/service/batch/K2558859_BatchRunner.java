@@ -0,0 +1,248 @@
+package service.batch;
+
+import model.book.K2558859_BasicBook;
+import model.report.K2558859_Report;
+import model.user.K2558859_Faculty;
+import model.user.K2558859_Guest;
+import model.user.K2558859_Student;
+import model.user.K2558859_User;
+import command.K2558859_CommandResult;
+import service.K2558859_LibraryManagementSystem;
+import exception.LibraryException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// K2558859_BatchRunner - Executes library commands read line by line from a script, without prompts
+// One command per line; blank lines and lines starting with '#' are skipped, and values containing
+// spaces are written in double quotes:
+//   add-book <bookId> "<title>" "<author>" "<category>" <isbn>
+//   add-copy <existingBookId> <newBookId>
+//   add-user <student|faculty|guest> <userId> "<name>" <email> <contactNumber>
+//   borrow | return | reserve | cancel <bookId> <userId>
+//   report <most-borrowed|active-borrowers|overdue>
+// Every command is timed, and the run ends with a throughput and per-command latency summary.
+public class K2558859_BatchRunner {
+    private static final Map<String, String> REPORT_TYPES = new LinkedHashMap<>();
+
+    static {
+        REPORT_TYPES.put("most-borrowed", "Most Borrowed Books");
+        REPORT_TYPES.put("active-borrowers", "Active Borrowers");
+        REPORT_TYPES.put("overdue", "Overdue Books");
+    }
+
+    private final K2558859_LibraryManagementSystem library;
+    private final PrintStream out;
+    private final Map<String, LatencyRecorder> latencies = new LinkedHashMap<>();
+    private long executed;
+    private long declined; // Executed circulation commands that were turned down (rule broken, unknown ID)
+    private long rejected; // Lines that could not be executed at all
+    private long elapsedNanos;
+
+    // Constructor for K2558859_BatchRunner; command and error output goes to out
+    public K2558859_BatchRunner(K2558859_LibraryManagementSystem library, PrintStream out) {
+        this.library = library;
+        this.out = out;
+    }
+
+    // Runs every command in the script
+    public void run(BufferedReader script) throws IOException {
+        long start = System.nanoTime();
+        String line;
+        int lineNumber = 0;
+        while ((line = script.readLine()) != null) {
+            lineNumber++;
+            long commandStart = System.nanoTime();
+            try {
+                List<String> tokens = tokenize(line);
+                if (tokens.isEmpty() || tokens.get(0).startsWith("#")) {
+                    continue;
+                }
+                String verb = tokens.get(0).toLowerCase();
+                K2558859_CommandResult result = execute(verb, tokens);
+                executed++;
+                if (result != null && result.isRejected()) {
+                    declined++;
+                }
+                latencies.computeIfAbsent(verb, key -> new LatencyRecorder()).record(System.nanoTime() - commandStart);
+            } catch (LibraryException | IllegalArgumentException e) {
+                rejected++;
+                out.println("Line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    // Applies one command to the library; returns the outcome of circulation commands, otherwise null
+    private K2558859_CommandResult execute(String verb, List<String> tokens) throws LibraryException {
+        switch (verb) {
+            case "borrow":
+                expectArguments(tokens, 2, "borrow <bookId> <userId>");
+                return library.borrowBook(tokens.get(1), tokens.get(2));
+            case "return":
+                expectArguments(tokens, 2, "return <bookId> <userId>");
+                return library.returnBook(tokens.get(1), tokens.get(2));
+            case "reserve":
+                expectArguments(tokens, 2, "reserve <bookId> <userId>");
+                return library.reserveBook(tokens.get(1), tokens.get(2));
+            case "cancel":
+                expectArguments(tokens, 2, "cancel <bookId> <userId>");
+                return library.cancelReservation(tokens.get(1), tokens.get(2));
+            case "add-book":
+                expectArguments(tokens, 5, "add-book <bookId> <title> <author> <category> <isbn>");
+                library.addBook(new K2558859_BasicBook(tokens.get(1), tokens.get(2), tokens.get(3), tokens.get(4),
+                                                       tokens.get(5)));
+                break;
+            case "add-copy":
+                expectArguments(tokens, 2, "add-copy <existingBookId> <newBookId>");
+                library.addCopy(tokens.get(1), tokens.get(2));
+                break;
+            case "add-user":
+                expectArguments(tokens, 5, "add-user <student|faculty|guest> <userId> <name> <email> <contactNumber>");
+                library.registerUser(createUser(tokens));
+                break;
+            case "report":
+                expectArguments(tokens, 1, "report <" + String.join("|", REPORT_TYPES.keySet()) + ">");
+                String reportType = REPORT_TYPES.get(tokens.get(1).toLowerCase());
+                if (reportType == null) {
+                    throw new IllegalArgumentException("Unknown report type: " + tokens.get(1));
+                }
+                K2558859_Report report = library.generateReport(reportType);
+                report.display();
+                return null;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + tokens.get(0));
+        }
+        return null;
+    }
+
+    private static K2558859_User createUser(List<String> tokens) {
+        String userId = tokens.get(2);
+        String name = tokens.get(3);
+        String email = tokens.get(4);
+        String contactNumber = tokens.get(5);
+        switch (tokens.get(1).toLowerCase()) {
+            case "student":
+                return new K2558859_Student(userId, name, email, contactNumber);
+            case "faculty":
+                return new K2558859_Faculty(userId, name, email, contactNumber);
+            case "guest":
+                return new K2558859_Guest(userId, name, email, contactNumber);
+            default:
+                throw new IllegalArgumentException("Unknown user type: " + tokens.get(1));
+        }
+    }
+
+    private static void expectArguments(List<String> tokens, int count, String usage) {
+        if (tokens.size() != count + 1) {
+            throw new IllegalArgumentException("Usage: " + usage);
+        }
+    }
+
+    // Splits a line on whitespace, keeping double-quoted values together
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        if (inToken) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    // Prints the throughput and latency summary of the run
+    public void printSummary(PrintStream summary) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        summary.println("=".repeat(80));
+        summary.println("Batch summary");
+        summary.println("=".repeat(80));
+        summary.printf("Commands executed: %,d (%,d declined), rejected: %,d, elapsed: %.3f s, " +
+                       "throughput: %,.0f commands/s%n",
+                       executed, declined, rejected, seconds, seconds > 0 ? executed / seconds : 0.0);
+        summary.printf("%-12s %12s %12s %12s %12s %12s%n", "Command", "Count", "Avg (us)", "p50 (us)", "p99 (us)",
+                       "Max (us)");
+        summary.println("-".repeat(80));
+        for (Map.Entry<String, LatencyRecorder> entry : latencies.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            summary.printf("%-12s %,12d %12.1f %12.1f %12.1f %12.1f%n", entry.getKey(), recorder.count,
+                           recorder.averageMicros(), recorder.percentileMicros(50), recorder.percentileMicros(99),
+                           recorder.percentileMicros(100));
+        }
+    }
+
+    // ----- Metrics -----
+
+    public long getExecutedCount() {
+        return executed;
+    }
+
+    public long getDeclinedCount() {
+        return declined;
+    }
+
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // Latency samples of one command type, kept in a growable primitive array
+    private static class LatencyRecorder {
+        private long[] samples = new long[1024];
+        private int count;
+        private long total;
+        private boolean sorted;
+
+        private void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+            total += nanos;
+            sorted = false;
+        }
+
+        private double averageMicros() {
+            return count == 0 ? 0.0 : total / 1_000.0 / count;
+        }
+
+        private double percentileMicros(int percentile) {
+            if (count == 0) {
+                return 0.0;
+            }
+            if (!sorted) {
+                Arrays.sort(samples, 0, count);
+                sorted = true;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return samples[Math.max(0, Math.min(count - 1, index))] / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package service.notification;
+
+import util.Output;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// K2558859_AsyncNotificationDispatcher - Delivers notifications on worker threads from a bounded queue
+// Workers drain the queue in batches and hand each batch to the delivery callback in one call.
+// With more than one worker, batches may be delivered out of submission order.
+public class K2558859_AsyncNotificationDispatcher {
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    public static final int DEFAULT_WORKER_COUNT = 2;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<K2558859_NotificationEvent> queue;
+    private final K2558859_BackpressurePolicy policy;
+    private final int batchSize;
+    private final Consumer<List<K2558859_NotificationEvent>> delivery;
+    private final List<Thread> workers;
+    private volatile boolean running;
+
+    // Metrics
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    // Constructor with default queue size, workers and batch size
+    public K2558859_AsyncNotificationDispatcher(Consumer<List<K2558859_NotificationEvent>> delivery,
+                                                K2558859_BackpressurePolicy policy) {
+        this(delivery, DEFAULT_QUEUE_CAPACITY, DEFAULT_WORKER_COUNT, DEFAULT_BATCH_SIZE, policy);
+    }
+
+    // Constructor for K2558859_AsyncNotificationDispatcher
+    public K2558859_AsyncNotificationDispatcher(Consumer<List<K2558859_NotificationEvent>> delivery, int queueCapacity,
+                                                int workerCount, int batchSize, K2558859_BackpressurePolicy policy) {
+        if (queueCapacity < 1 || workerCount < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Queue capacity, worker count and batch size must be positive.");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.policy = policy;
+        this.batchSize = batchSize;
+        this.delivery = delivery;
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "notification-worker-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    // Starts the worker threads
+    public void start() {
+        running = true;
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    // Queues a notification, applying the backpressure policy if the queue is full
+    public void submit(K2558859_NotificationEvent event) {
+        if (!running) {
+            throw new IllegalStateException("Notification dispatcher is not running.");
+        }
+        submittedCount.incrementAndGet();
+        if (queue.offer(event)) {
+            return;
+        }
+
+        switch (policy) {
+            case BLOCK:
+                try {
+                    queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCount.incrementAndGet();
+                }
+                break;
+            case DROP_NEWEST:
+                droppedCount.incrementAndGet();
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(event)) {
+                    if (queue.poll() != null) {
+                        droppedCount.incrementAndGet();
+                    }
+                }
+                break;
+            case CALLER_RUNS:
+                deliver(Collections.singletonList(event));
+                break;
+        }
+    }
+
+    // Stops accepting notifications, delivers everything still queued and stops the workers
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Worker loop - waits for the first event, then drains up to a full batch
+    private void runWorker() {
+        List<K2558859_NotificationEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            K2558859_NotificationEvent first;
+            try {
+                first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            deliver(batch);
+            batch.clear();
+        }
+    }
+
+    // Hands a batch to the delivery callback and records latency
+    private void deliver(List<K2558859_NotificationEvent> batch) {
+        try {
+            delivery.accept(batch);
+        } catch (RuntimeException e) {
+            failedCount.addAndGet(batch.size());
+            Output.error("Error: Notification delivery failed: " + e.getMessage());
+            return;
+        }
+        long now = System.nanoTime();
+        for (K2558859_NotificationEvent event : batch) {
+            long latency = now - event.getCreatedAtNanos();
+            totalLatencyNanos.addAndGet(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+        deliveredCount.addAndGet(batch.size());
+        batchCount.incrementAndGet();
+    }
+
+    // ----- Metrics -----
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0.0 : (double) deliveredCount.get() / batches;
+    }
+
+    public double getAverageLatencyMillis() {
+        long delivered = deliveredCount.get();
+        return delivered == 0 ? 0.0 : totalLatencyNanos.get() / (delivered * 1_000_000.0);
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    public K2558859_BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,13 @@
+package service.notification;
+
+// K2558859_BackpressurePolicy - What the async dispatcher does when its queue is full
+public enum K2558859_BackpressurePolicy {
+    // Wait until a worker frees up space in the queue
+    BLOCK,
+    // Discard the notification being submitted
+    DROP_NEWEST,
+    // Discard the oldest queued notification to make room
+    DROP_OLDEST,
+    // Deliver the notification on the submitting thread
+    CALLER_RUNS
+}
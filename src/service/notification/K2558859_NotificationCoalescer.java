@@ -0,0 +1,168 @@
+package service.notification;
+
+import model.user.K2558859_User;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+// K2558859_NotificationCoalescer - Merges messages per recipient within a time window into one digest
+// The window starts with the first message a recipient receives; everything arriving before it closes
+// goes out as a single message. A window of one day turns this into a daily digest.
+public class K2558859_NotificationCoalescer {
+    private static final long MIN_CHECK_INTERVAL_MILLIS = 10;
+    private static final long MAX_CHECK_INTERVAL_MILLIS = 60_000;
+
+    private final long windowMillis;
+    private final BiConsumer<K2558859_User, String> delivery;
+    private final Map<String, PendingDigest> pending;
+    private ScheduledExecutorService flusher;
+
+    // Metrics
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+
+    // Constructor for K2558859_NotificationCoalescer; delivery receives the recipient and the merged text
+    public K2558859_NotificationCoalescer(long windowMillis, BiConsumer<K2558859_User, String> delivery) {
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("Coalescing window must be positive: " + windowMillis);
+        }
+        this.windowMillis = windowMillis;
+        this.delivery = delivery;
+        this.pending = new LinkedHashMap<>();
+    }
+
+    // Starts the background flusher that closes expired windows
+    public synchronized void start() {
+        if (flusher != null) {
+            return;
+        }
+        long checkInterval = Math.max(MIN_CHECK_INTERVAL_MILLIS, Math.min(MAX_CHECK_INTERVAL_MILLIS, windowMillis / 4));
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(() -> flushExpired(System.currentTimeMillis()),
+                                    checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    // Adds a message for a recipient to their open digest
+    public void offer(K2558859_User recipient, String text) {
+        receivedCount.incrementAndGet();
+        synchronized (this) {
+            pending.computeIfAbsent(recipient.getUserId(),
+                                    key -> new PendingDigest(recipient, System.currentTimeMillis()))
+                   .messages.add(text);
+        }
+    }
+
+    // Sends every digest whose window has closed
+    public void flushExpired(long nowMillis) {
+        List<PendingDigest> ready = new ArrayList<>();
+        synchronized (this) {
+            // Insertion order equals window start order, so stop at the first open window
+            Iterator<PendingDigest> iterator = pending.values().iterator();
+            while (iterator.hasNext()) {
+                PendingDigest digest = iterator.next();
+                if (digest.openedAtMillis + windowMillis > nowMillis) {
+                    break;
+                }
+                ready.add(digest);
+                iterator.remove();
+            }
+        }
+        send(ready);
+    }
+
+    // Sends every open digest immediately
+    public void flushAll() {
+        List<PendingDigest> ready;
+        synchronized (this) {
+            ready = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        send(ready);
+    }
+
+    // Stops the flusher and sends whatever is still pending
+    public void shutdown() {
+        synchronized (this) {
+            if (flusher != null) {
+                flusher.shutdownNow();
+                flusher = null;
+            }
+        }
+        flushAll();
+    }
+
+    private void send(List<PendingDigest> digests) {
+        for (PendingDigest digest : digests) {
+            delivery.accept(digest.recipient, digest.render());
+            sentCount.incrementAndGet();
+        }
+    }
+
+    // ----- Metrics -----
+
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    // Gets how many incoming messages were merged into each outgoing one
+    public double getCoalescingRatio() {
+        long sent = sentCount.get();
+        return sent == 0 ? 0.0 : (double) (receivedCount.get() - getPendingMessageCount()) / sent;
+    }
+
+    public synchronized int getPendingRecipientCount() {
+        return pending.size();
+    }
+
+    public synchronized int getPendingMessageCount() {
+        int count = 0;
+        for (PendingDigest digest : pending.values()) {
+            count += digest.messages.size();
+        }
+        return count;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    // Messages collected for one recipient during the current window
+    private static class PendingDigest {
+        private final K2558859_User recipient;
+        private final long openedAtMillis;
+        private final List<String> messages = new ArrayList<>();
+
+        private PendingDigest(K2558859_User recipient, long openedAtMillis) {
+            this.recipient = recipient;
+            this.openedAtMillis = openedAtMillis;
+        }
+
+        // A single message goes out unchanged; several become one digest
+        private String render() {
+            if (messages.size() == 1) {
+                return messages.get(0);
+            }
+            StringBuilder digest = new StringBuilder();
+            digest.append("Digest of ").append(messages.size()).append(" notifications:");
+            for (String message : messages) {
+                digest.append("\n  - ").append(message);
+            }
+            return digest.toString();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package service.notification;
+
+import model.book.K2558859_Book;
+import model.user.K2558859_User;
+
+// K2558859_NotificationEvent - A notification waiting to be delivered to observers
+public class K2558859_NotificationEvent {
+    private final K2558859_Book book;
+    private final K2558859_User recipient;
+    private final K2558859_NotificationType type;
+    private final String message;
+    private final long createdAtNanos;
+
+    // Constructor for a general notification about a book
+    public K2558859_NotificationEvent(K2558859_Book book, String message) {
+        this(book, null, K2558859_NotificationType.GENERAL, message);
+    }
+
+    // Constructor for K2558859_NotificationEvent; recipient may be null for events not addressed to a user
+    public K2558859_NotificationEvent(K2558859_Book book, K2558859_User recipient, K2558859_NotificationType type,
+                                      String message) {
+        this.book = book;
+        this.recipient = recipient;
+        this.type = type;
+        this.message = message;
+        this.createdAtNanos = System.nanoTime();
+    }
+
+    // Getters
+    public K2558859_Book getBook() {
+        return book;
+    }
+
+    public K2558859_User getRecipient() {
+        return recipient;
+    }
+
+    public K2558859_NotificationType getType() {
+        return type;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getCreatedAtNanos() {
+        return createdAtNanos;
+    }
+}
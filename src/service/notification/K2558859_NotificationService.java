@@ -1,40 +1,303 @@
 package service.notification;
 
 import model.book.K2558859_Book;
+import model.user.K2558859_User;
+import service.notification.outbox.K2558859_NotificationOutbox;
+import service.notification.outbox.K2558859_NotificationTransport;
+import service.notification.outbox.K2558859_OutboxDeliveryWorker;
+import util.Output;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 // K2558859_NotificationService class implements Observer Pattern (Subject)
+// Observers either register for every event or subscribe to topics (book, user, event type);
+// an event is only delivered to observers interested in one of its topics.
 public class K2558859_NotificationService implements K2558859_Subject {
-    private List<K2558859_Observer> observers;
+    private Set<K2558859_Observer> observers;
+    private Map<K2558859_NotificationTopic, Set<K2558859_Observer>> subscriptions;
+    private Map<K2558859_Observer, Set<K2558859_NotificationTopic>> topicsByObserver;
+    private K2558859_AsyncNotificationDispatcher dispatcher;
+    private volatile K2558859_NotificationCoalescer coalescer;
+    private volatile K2558859_OutboxDeliveryWorker outboxWorker;
 
     // Constructor for K2558859_NotificationService
     public K2558859_NotificationService() {
-        this.observers = new ArrayList<>();
+        // Concurrent sets so worker threads can deliver while observers subscribe
+        this.observers = ConcurrentHashMap.newKeySet();
+        this.subscriptions = new ConcurrentHashMap<>();
+        this.topicsByObserver = new ConcurrentHashMap<>();
     }
 
-    // Registers an observer
+    // Registers an observer for every event
     @Override
     public void registerObserver(K2558859_Observer observer) {
-        if (!observers.contains(observer)) {
-            observers.add(observer);
-            System.out.println("Observer registered for notifications.");
+        if (observers.add(observer)) {
+            Output.info("Observer registered for notifications.");
         }
     }
 
-    // Removes an observer
+    // Removes an observer registered for every event
     @Override
     public void removeObserver(K2558859_Observer observer) {
         if (observers.remove(observer)) {
-            System.out.println("Observer removed from notifications.");
+            Output.info("Observer removed from notifications.");
         }
     }
 
-    // Notifies all observers about a book event
+    // Subscribes an observer to one topic
+    public void subscribe(K2558859_NotificationTopic topic, K2558859_Observer observer) {
+        subscriptions.computeIfAbsent(topic, key -> ConcurrentHashMap.newKeySet()).add(observer);
+        topicsByObserver.computeIfAbsent(observer, key -> ConcurrentHashMap.newKeySet()).add(topic);
+    }
+
+    // Unsubscribes an observer from one topic
+    public void unsubscribe(K2558859_NotificationTopic topic, K2558859_Observer observer) {
+        Set<K2558859_Observer> subscribers = subscriptions.get(topic);
+        if (subscribers != null) {
+            subscribers.remove(observer);
+            if (subscribers.isEmpty()) {
+                subscriptions.remove(topic, subscribers);
+            }
+        }
+        Set<K2558859_NotificationTopic> topics = topicsByObserver.get(observer);
+        if (topics != null) {
+            topics.remove(topic);
+            if (topics.isEmpty()) {
+                topicsByObserver.remove(observer, topics);
+            }
+        }
+    }
+
+    // Removes an observer from every topic it subscribed to
+    public void unsubscribeAll(K2558859_Observer observer) {
+        Set<K2558859_NotificationTopic> topics = topicsByObserver.remove(observer);
+        if (topics == null) {
+            return;
+        }
+        for (K2558859_NotificationTopic topic : topics) {
+            Set<K2558859_Observer> subscribers = subscriptions.get(topic);
+            if (subscribers != null) {
+                subscribers.remove(observer);
+                if (subscribers.isEmpty()) {
+                    subscriptions.remove(topic, subscribers);
+                }
+            }
+        }
+    }
+
+    // Notifies observers interested in a book about a general event
     @Override
     public void notifyObservers(K2558859_Book book, String message) {
-        for (K2558859_Observer observer : observers) {
-            observer.update(book, message);
+        publish(new K2558859_NotificationEvent(book, message));
+    }
+
+    // Notifies one user (and observers of the book and event type) about an event
+    public void notifyUser(K2558859_User user, K2558859_Book book, K2558859_NotificationType type, String message) {
+        publish(new K2558859_NotificationEvent(book, user, type, message));
+    }
+
+    // Sends an announcement to every registered or subscribed observer
+    public void notifyAllSubscribers(K2558859_Book book, String message) {
+        K2558859_NotificationEvent event = new K2558859_NotificationEvent(book, message);
+        for (K2558859_Observer observer : getAllObservers()) {
+            observer.update(event.getBook(), event.getMessage());
+        }
+    }
+
+    // Publishes an event, on the dispatcher's workers when asynchronous delivery is on
+    public void publish(K2558859_NotificationEvent event) {
+        if (dispatcher != null) {
+            dispatcher.submit(event);
+            return;
+        }
+        for (K2558859_Observer observer : resolveObservers(event)) {
+            observer.update(event.getBook(), event.getMessage());
+        }
+    }
+
+    // Collects the observers interested in an event without touching anyone else
+    private Collection<K2558859_Observer> resolveObservers(K2558859_NotificationEvent event) {
+        List<Set<K2558859_Observer>> groups = new ArrayList<>(4);
+        addGroup(groups, observers);
+        if (event.getBook() != null) {
+            addGroup(groups, subscriptions.get(K2558859_NotificationTopic.forBook(event.getBook().getBookId())));
+        }
+        if (event.getRecipient() != null) {
+            addGroup(groups, subscriptions.get(K2558859_NotificationTopic.forUser(event.getRecipient().getUserId())));
+        }
+        addGroup(groups, subscriptions.get(K2558859_NotificationTopic.forType(event.getType())));
+
+        if (groups.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (groups.size() == 1) {
+            return groups.get(0);
+        }
+        // An observer subscribed to several matching topics still gets the event once
+        Set<K2558859_Observer> merged = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Set<K2558859_Observer> group : groups) {
+            merged.addAll(group);
+        }
+        return merged;
+    }
+
+    private static void addGroup(List<Set<K2558859_Observer>> groups, Set<K2558859_Observer> group) {
+        if (group != null && !group.isEmpty()) {
+            groups.add(group);
+        }
+    }
+
+    // Delivers a batch of events, grouping them so each interested observer (channel) gets one call
+    private void deliverBatch(List<K2558859_NotificationEvent> events) {
+        Map<K2558859_Observer, List<K2558859_NotificationEvent>> eventsByObserver = new LinkedHashMap<>();
+        for (K2558859_NotificationEvent event : events) {
+            for (K2558859_Observer observer : resolveObservers(event)) {
+                eventsByObserver.computeIfAbsent(observer, key -> new ArrayList<>()).add(event);
+            }
+        }
+        for (Map.Entry<K2558859_Observer, List<K2558859_NotificationEvent>> entry : eventsByObserver.entrySet()) {
+            try {
+                entry.getKey().updateBatch(entry.getValue());
+            } catch (RuntimeException e) {
+                // A failing channel must not stop delivery to the others
+                Output.error("Error: Observer failed to process notifications: " + e.getMessage());
+            }
+        }
+    }
+
+    // ----- Outbound Messages -----
+
+    // Sends a message to a user, merged into their digest when coalescing is enabled
+    public void sendToUser(K2558859_User recipient, String text) {
+        K2558859_NotificationCoalescer current = coalescer;
+        if (current != null) {
+            current.offer(recipient, text);
+        } else {
+            deliverMessage(recipient, text);
         }
     }
+
+    // Final delivery step for a message to a user; recorded in the outbox when one is enabled
+    private void deliverMessage(K2558859_User recipient, String text) {
+        K2558859_OutboxDeliveryWorker current = outboxWorker;
+        // A worker that is shutting down turns the message away; it is then shown like any other notification
+        if (current != null && current.submit(recipient.getName(), recipient.getEmail(), text)) {
+            return;
+        }
+        Output.info("Notification to " + recipient.getName() + " (" + recipient.getEmail() + "): " + text);
+    }
+
+    // ----- Persistent Outbox -----
+
+    // Records every outbound message in an outbox log and delivers it through the transport with retries
+    public void enableOutbox(Path logFile, K2558859_NotificationTransport transport) throws IOException {
+        if (outboxWorker != null) {
+            return;
+        }
+        K2558859_OutboxDeliveryWorker worker = new K2558859_OutboxDeliveryWorker(
+            new K2558859_NotificationOutbox(logFile), transport);
+        worker.start();
+        outboxWorker = worker;
+    }
+
+    // Stops outbox delivery; messages not delivered within the timeout stay in the log for the next start
+    public void disableOutbox(long timeoutMillis) {
+        K2558859_OutboxDeliveryWorker oldWorker = outboxWorker;
+        if (oldWorker == null) {
+            return;
+        }
+        outboxWorker = null;
+        oldWorker.shutdown(timeoutMillis);
+    }
+
+    // Gets the outbox delivery worker (for throughput and retry metrics), or null when the outbox is off
+    public K2558859_OutboxDeliveryWorker getOutboxWorker() {
+        return outboxWorker;
+    }
+
+    // Merges messages per recipient within the given window into one digest
+    public void enableCoalescing(long windowMillis) {
+        if (coalescer != null) {
+            return;
+        }
+        K2558859_NotificationCoalescer newCoalescer = new K2558859_NotificationCoalescer(windowMillis, this::deliverMessage);
+        newCoalescer.start();
+        coalescer = newCoalescer;
+    }
+
+    // Sends all open digests and returns to delivering every message on its own
+    public void disableCoalescing() {
+        K2558859_NotificationCoalescer oldCoalescer = coalescer;
+        if (oldCoalescer == null) {
+            return;
+        }
+        coalescer = null;
+        oldCoalescer.shutdown();
+    }
+
+    // Gets the coalescing stage (for volume metrics), or null when coalescing is off
+    public K2558859_NotificationCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    // ----- Asynchronous Delivery -----
+
+    // Switches to asynchronous delivery through a bounded queue with the given backpressure policy
+    public void enableAsyncDelivery(K2558859_BackpressurePolicy policy) {
+        enableAsyncDelivery(K2558859_AsyncNotificationDispatcher.DEFAULT_QUEUE_CAPACITY,
+                            K2558859_AsyncNotificationDispatcher.DEFAULT_WORKER_COUNT,
+                            K2558859_AsyncNotificationDispatcher.DEFAULT_BATCH_SIZE, policy);
+    }
+
+    // Switches to asynchronous delivery with a custom queue size, worker count and batch size
+    public void enableAsyncDelivery(int queueCapacity, int workerCount, int batchSize, K2558859_BackpressurePolicy policy) {
+        if (dispatcher != null) {
+            return;
+        }
+        K2558859_AsyncNotificationDispatcher newDispatcher = new K2558859_AsyncNotificationDispatcher(
+            this::deliverBatch, queueCapacity, workerCount, batchSize, policy);
+        newDispatcher.start();
+        dispatcher = newDispatcher;
+    }
+
+    // Delivers everything still queued and returns to synchronous delivery
+    public void disableAsyncDelivery() {
+        if (dispatcher == null) {
+            return;
+        }
+        K2558859_AsyncNotificationDispatcher oldDispatcher = dispatcher;
+        dispatcher = null;
+        oldDispatcher.shutdown();
+    }
+
+    // Gets the asynchronous dispatcher (for queue depth and latency metrics), or null when delivery is synchronous
+    public K2558859_AsyncNotificationDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    // Gets every distinct observer, whether registered for all events or subscribed to topics
+    private Set<K2558859_Observer> getAllObservers() {
+        Set<K2558859_Observer> all = Collections.newSetFromMap(new IdentityHashMap<>());
+        all.addAll(observers);
+        all.addAll(topicsByObserver.keySet());
+        return all;
+    }
+
+    public int getObserverCount() {
+        return getAllObservers().size();
+    }
+
+    public int getSubscriberCount(K2558859_NotificationTopic topic) {
+        Set<K2558859_Observer> subscribers = subscriptions.get(topic);
+        return subscribers == null ? 0 : subscribers.size();
+    }
 }
@@ -0,0 +1,68 @@
+package service.notification;
+
+import java.util.Objects;
+
+// K2558859_NotificationTopic - Key that observers subscribe to: a book, a user or an event type
+public final class K2558859_NotificationTopic {
+
+    // What the topic key refers to
+    public enum Kind {
+        BOOK,
+        USER,
+        TYPE
+    }
+
+    private final Kind kind;
+    private final String key;
+
+    private K2558859_NotificationTopic(Kind kind, String key) {
+        this.kind = kind;
+        this.key = key;
+    }
+
+    // Topic for all events about one book (IDs are matched case-insensitively)
+    public static K2558859_NotificationTopic forBook(String bookId) {
+        return new K2558859_NotificationTopic(Kind.BOOK, bookId.toLowerCase());
+    }
+
+    // Topic for all events addressed to one user (IDs are matched case-insensitively)
+    public static K2558859_NotificationTopic forUser(String userId) {
+        return new K2558859_NotificationTopic(Kind.USER, userId.toLowerCase());
+    }
+
+    // Topic for all events of one type
+    public static K2558859_NotificationTopic forType(K2558859_NotificationType type) {
+        return new K2558859_NotificationTopic(Kind.TYPE, type.name());
+    }
+
+    // Getters
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof K2558859_NotificationTopic)) {
+            return false;
+        }
+        K2558859_NotificationTopic topic = (K2558859_NotificationTopic) other;
+        return kind == topic.kind && key.equals(topic.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, key);
+    }
+
+    @Override
+    public String toString() {
+        return kind + ":" + key;
+    }
+}
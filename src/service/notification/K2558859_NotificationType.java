@@ -0,0 +1,12 @@
+package service.notification;
+
+// K2558859_NotificationType - Kinds of events published by the notification service
+public enum K2558859_NotificationType {
+    GENERAL,
+    BORROWED,
+    RETURNED,
+    RESERVED,
+    RESERVATION_CANCELLED,
+    BOOK_AVAILABLE,
+    DUE_DATE_REMINDER
+}
@@ -1,10 +1,18 @@
 package service.notification;
 
 import model.book.K2558859_Book;
+import java.util.List;
 
 // K2558859_Observer interface for Observer Pattern
 public interface K2558859_Observer {
     
     // Called when the subject's state changes
     void update(K2558859_Book book, String message);
+
+    // Called with several notifications at once; channels that can send them together should override this
+    default void updateBatch(List<K2558859_NotificationEvent> events) {
+        for (K2558859_NotificationEvent event : events) {
+            update(event.getBook(), event.getMessage());
+        }
+    }
 }
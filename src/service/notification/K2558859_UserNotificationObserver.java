@@ -2,22 +2,34 @@ package service.notification;
 
 import model.book.K2558859_Book;
 import model.user.K2558859_User;
+import util.Output;
 
 // K2558859_UserNotificationObserver - Concrete observer for user notifications
 public class K2558859_UserNotificationObserver implements K2558859_Observer {
     private K2558859_User user;
+    private K2558859_NotificationService notificationService;
 
-    // Constructor for K2558859_UserNotificationObserver
+    // Constructor for K2558859_UserNotificationObserver that prints notifications directly
     public K2558859_UserNotificationObserver(K2558859_User user) {
+        this(user, null);
+    }
+
+    // Constructor for K2558859_UserNotificationObserver that sends through the service (digests, delivery)
+    public K2558859_UserNotificationObserver(K2558859_User user, K2558859_NotificationService notificationService) {
         this.user = user;
+        this.notificationService = notificationService;
     }
 
     // Receives and processes notification updates
     @Override
     public void update(K2558859_Book book, String message) {
-        System.out.println("Notification to " + user.getName() + 
-                         " (" + user.getEmail() + "): " + 
-                         message + " - '" + book.getTitle() + "'");
+        String text = message + " - '" + book.getTitle() + "'";
+        if (notificationService != null) {
+            notificationService.sendToUser(user, text);
+        } else {
+            Output.info("Notification to " + user.getName() + 
+                             " (" + user.getEmail() + "): " + text);
+        }
     }
 
     // Gets the user associated with this observer
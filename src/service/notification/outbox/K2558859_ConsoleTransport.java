@@ -0,0 +1,16 @@
+package service.notification.outbox;
+
+// K2558859_ConsoleTransport - Prints outbox messages to the console
+public class K2558859_ConsoleTransport implements K2558859_NotificationTransport {
+
+    @Override
+    public void send(K2558859_OutboxMessage message) {
+        System.out.println("Notification to " + message.getRecipientName() + " (" + message.getRecipientEmail() +
+                           "): " + message.getBody());
+    }
+
+    @Override
+    public String getName() {
+        return "Console";
+    }
+}
@@ -0,0 +1,178 @@
+package service.notification.outbox;
+
+import util.Output;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// K2558859_LocalSmtpServer - Minimal in-process SMTP server standing in for a real mail relay
+// Accepts mail on a loopback port and keeps the most recent messages in memory. A failure rate
+// can be set to reject a share of messages with a temporary error and exercise the retry path.
+public class K2558859_LocalSmtpServer {
+    private static final int RECENT_MESSAGE_LIMIT = 100;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final Deque<String> recentMessages = new ArrayDeque<>();
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private volatile double failureRate;
+    private volatile boolean running;
+
+    // Constructor that binds an ephemeral loopback port
+    public K2558859_LocalSmtpServer() throws IOException {
+        this(0);
+    }
+
+    // Constructor for K2558859_LocalSmtpServer
+    public K2558859_LocalSmtpServer(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.sessions = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "local-smtp-session");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Starts accepting connections
+    public void start() {
+        running = true;
+        Thread acceptor = new Thread(this::acceptLoop, "local-smtp-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // Stops the server and closes every session
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        sessions.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> handleSession(socket));
+            } catch (IOException e) {
+                if (running) {
+                    Output.error("Error: Local SMTP server failed to accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Runs one SMTP session: HELO, then any number of MAIL/RCPT/DATA transactions, then QUIT
+    private void handleSession(Socket socket) {
+        try (Socket client = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            reply(writer, "220 library.local SMTP ready");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String verb = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (verb) {
+                    case "HELO":
+                    case "EHLO":
+                    case "MAIL":
+                    case "RCPT":
+                    case "RSET":
+                    case "NOOP":
+                        reply(writer, "250 OK");
+                        break;
+                    case "DATA":
+                        reply(writer, "354 End data with <CR><LF>.<CR><LF>");
+                        String message = readData(reader);
+                        if (message == null) {
+                            return;
+                        }
+                        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                            rejectedCount.incrementAndGet();
+                            reply(writer, "451 Temporary failure, try again later");
+                        } else {
+                            store(message);
+                            reply(writer, "250 Message accepted");
+                        }
+                        break;
+                    case "QUIT":
+                        reply(writer, "221 Bye");
+                        return;
+                    default:
+                        reply(writer, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // Client went away; nothing to clean up beyond the socket
+        }
+    }
+
+    private static String readData(BufferedReader reader) throws IOException {
+        StringBuilder message = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.equals(".")) {
+                return message.toString();
+            }
+            message.append(line.startsWith("..") ? line.substring(1) : line).append('\n');
+        }
+        return null;
+    }
+
+    private static void reply(BufferedWriter writer, String line) throws IOException {
+        writer.write(line);
+        writer.write("\r\n");
+        writer.flush();
+    }
+
+    private void store(String message) {
+        receivedCount.incrementAndGet();
+        synchronized (recentMessages) {
+            if (recentMessages.size() == RECENT_MESSAGE_LIMIT) {
+                recentMessages.removeFirst();
+            }
+            recentMessages.addLast(message);
+        }
+    }
+
+    // Share of messages (0.0 - 1.0) rejected with a temporary failure
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // Gets the most recent messages, oldest first
+    public List<String> getRecentMessages() {
+        synchronized (recentMessages) {
+            return new ArrayList<>(recentMessages);
+        }
+    }
+}
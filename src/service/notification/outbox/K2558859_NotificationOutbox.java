@@ -0,0 +1,241 @@
+package service.notification.outbox;
+
+import util.Output;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// K2558859_NotificationOutbox - Append-only log of every outbound notification and its delivery outcome
+// Each line is one record: E (enqueued), D (delivered) or X (gave up after the last retry).
+// Replaying the log after a restart yields the messages that were never delivered.
+// Outcome records are flushed to the operating system as they are written. Enqueue records are only buffered,
+// so the caller's thread never waits on the disk; the delivery workers flush them in groups, at the latest
+// just before the message is sent.
+public class K2558859_NotificationOutbox {
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final int COMPACTION_THRESHOLD = 10_000;
+
+    private final Path logFile;
+    private final Map<Long, K2558859_OutboxMessage> pending = new LinkedHashMap<>();
+    private BufferedWriter writer;
+    private boolean unflushed; // Enqueue records written since the last flush
+    private boolean closed;
+    private long nextMessageId = 1;
+    private long completedSinceCompaction;
+    private long deliveredCount;
+    private long deadCount;
+
+    // Opens the outbox, replaying an existing log to recover undelivered messages
+    public K2558859_NotificationOutbox(Path logFile) throws IOException {
+        this.logFile = logFile;
+        if (Files.exists(logFile)) {
+            replay();
+        }
+        this.writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                                              StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (endsWithTornRecord()) {
+            // Terminate the torn line so the next record starts on a line of its own
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    // Records a new message and returns it; the record is buffered until the next flush
+    public synchronized K2558859_OutboxMessage enqueue(String recipientName, String recipientEmail, String body) {
+        if (closed) {
+            throw new IllegalStateException("The notification outbox is closed.");
+        }
+        K2558859_OutboxMessage message = new K2558859_OutboxMessage(nextMessageId++, recipientName, recipientEmail,
+                                                                    body, System.currentTimeMillis());
+        write("E", Long.toString(message.getMessageId()), Long.toString(message.getCreatedAtMillis()),
+              escape(recipientName), escape(recipientEmail), escape(body));
+        unflushed = true;
+        pending.put(message.getMessageId(), message);
+        return message;
+    }
+
+    // Flushes buffered enqueue records to the operating system
+    public synchronized void flush() {
+        if (!unflushed || closed) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the notification outbox", e);
+        }
+        unflushed = false;
+    }
+
+    // Records that a message reached its transport
+    public synchronized void markDelivered(K2558859_OutboxMessage message) {
+        if (!closed && pending.remove(message.getMessageId()) != null) {
+            append("D", Long.toString(message.getMessageId()));
+            deliveredCount++;
+            completed();
+        }
+    }
+
+    // Records that a message was abandoned after its last attempt
+    public synchronized void markDead(K2558859_OutboxMessage message) {
+        if (!closed && pending.remove(message.getMessageId()) != null) {
+            append("X", Long.toString(message.getMessageId()), Integer.toString(message.getAttempts()));
+            deadCount++;
+            completed();
+        }
+    }
+
+    // Gets the messages still waiting for delivery, oldest first
+    public synchronized List<K2558859_OutboxMessage> getPendingMessages() {
+        return new ArrayList<>(pending.values());
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public synchronized long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    public synchronized long getDeadCount() {
+        return deadCount;
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    // Closes the log; undelivered messages are picked up again when the outbox is reopened
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            Output.error("Error: Could not close the notification outbox: " + e.getMessage());
+        }
+    }
+
+    // Writes a record and flushes it together with any buffered enqueue records
+    private void append(String... fields) {
+        write(fields);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the notification outbox", e);
+        }
+        unflushed = false;
+    }
+
+    private void write(String... fields) {
+        try {
+            writer.write(String.join(FIELD_SEPARATOR, fields));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the notification outbox", e);
+        }
+    }
+
+    // Rewrites the log with only the pending messages once enough completed records have piled up
+    private void completed() {
+        if (++completedSinceCompaction < COMPACTION_THRESHOLD) {
+            return;
+        }
+        completedSinceCompaction = 0;
+        Path compacted = logFile.resolveSibling(logFile.getFileName() + ".compact");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+                for (K2558859_OutboxMessage message : pending.values()) {
+                    out.write(String.join(FIELD_SEPARATOR, "E", Long.toString(message.getMessageId()),
+                                          Long.toString(message.getCreatedAtMillis()), escape(message.getRecipientName()),
+                                          escape(message.getRecipientEmail()), escape(message.getBody())));
+                    out.newLine();
+                }
+            }
+            writer.close();
+            Files.move(compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact the notification outbox", e);
+        }
+    }
+
+    private boolean endsWithTornRecord() throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(logFile, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return false;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1);
+            channel.read(last);
+            return last.get(0) != '\n';
+        }
+    }
+
+    private void replay() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(FIELD_SEPARATOR, -1);
+                // A torn last line from a crash is skipped; its message was never acknowledged
+                try {
+                    long messageId = Long.parseLong(fields[1]);
+                    nextMessageId = Math.max(nextMessageId, messageId + 1);
+                    if (fields[0].equals("E")) {
+                        pending.put(messageId, new K2558859_OutboxMessage(messageId, unescape(fields[3]),
+                            unescape(fields[4]), unescape(fields[5]), Long.parseLong(fields[2])));
+                    } else {
+                        pending.remove(messageId);
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    Output.warn("Warning: Skipping damaged outbox record.");
+                }
+            }
+        }
+    }
+
+    // Keeps every record on one line
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': escaped.append("\\\\"); break;
+                case '\t': escaped.append("\\t"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String value) {
+        StringBuilder plain = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                plain.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                plain.append(c);
+            }
+        }
+        return plain.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package service.notification.outbox;
+
+import java.io.IOException;
+
+// K2558859_NotificationTransport - Channel that actually delivers outbox messages (console, SMTP, ...)
+// Implementations must be safe to call from several delivery threads at once.
+public interface K2558859_NotificationTransport {
+    // Delivers one message; an IOException means the attempt failed and may be retried
+    void send(K2558859_OutboxMessage message) throws IOException;
+
+    // Releases connections held by the transport
+    default void close() {
+    }
+
+    String getName();
+}
@@ -0,0 +1,223 @@
+package service.notification.outbox;
+
+import util.Output;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// K2558859_OutboxDeliveryWorker - Delivers outbox messages through a transport with retries
+// A failed attempt is retried after an exponential backoff (with jitter) until the attempt limit,
+// after which the message is marked dead in the outbox.
+public class K2558859_OutboxDeliveryWorker {
+    public static final int DEFAULT_WORKER_COUNT = 4;
+    public static final int DEFAULT_MAX_ATTEMPTS = 6;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 500;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 5 * 60 * 1000L;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final K2558859_NotificationOutbox outbox;
+    private final K2558859_NotificationTransport transport;
+    private final DelayQueue<K2558859_OutboxMessage> queue = new DelayQueue<>();
+    private final List<Thread> workers;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private volatile boolean running;
+    private volatile boolean accepting;
+    private volatile boolean closeWhenStopped;
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private long startedAtNanos;
+
+    // Metrics
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong deadCount = new AtomicLong();
+
+    // Constructor with the default workers and retry policy
+    public K2558859_OutboxDeliveryWorker(K2558859_NotificationOutbox outbox, K2558859_NotificationTransport transport) {
+        this(outbox, transport, DEFAULT_WORKER_COUNT, DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF_MILLIS,
+             DEFAULT_MAX_BACKOFF_MILLIS);
+    }
+
+    // Constructor for K2558859_OutboxDeliveryWorker
+    public K2558859_OutboxDeliveryWorker(K2558859_NotificationOutbox outbox, K2558859_NotificationTransport transport,
+                                         int workerCount, int maxAttempts, long initialBackoffMillis,
+                                         long maxBackoffMillis) {
+        if (workerCount < 1 || maxAttempts < 1 || initialBackoffMillis < 1) {
+            throw new IllegalArgumentException("Worker count, attempts and backoff must be positive.");
+        }
+        this.outbox = outbox;
+        this.transport = transport;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoffMillis);
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "outbox-delivery-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    // Starts the workers and resumes delivery of messages left over from an earlier run
+    public void start() {
+        running = true;
+        accepting = true;
+        startedAtNanos = System.nanoTime();
+        queue.addAll(outbox.getPendingMessages());
+        liveWorkers.set(workers.size());
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    // Records a message in the outbox and queues it for delivery; returns false once shutdown has begun
+    public boolean submit(String recipientName, String recipientEmail, String body) {
+        if (!accepting) {
+            return false;
+        }
+        K2558859_OutboxMessage message;
+        try {
+            message = outbox.enqueue(recipientName, recipientEmail, body);
+        } catch (IllegalStateException e) {
+            // The outbox was closed after the check above
+            return false;
+        }
+        enqueuedCount.incrementAndGet();
+        queue.add(message);
+        return true;
+    }
+
+    // Stops the workers after delivering what is due within the timeout; the rest stays in the outbox
+    // The outbox and transport are only closed once every worker has stopped; if a worker is still blocked in
+    // the transport after the timeout, the last worker to stop closes them.
+    public void shutdown(long timeoutMillis) {
+        accepting = false;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (queue.peek() != null && queue.peek().getDelay(TimeUnit.MILLISECONDS) <= 0
+               && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()) + POLL_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeWhenStopped = true;
+        if (liveWorkers.get() == 0) {
+            closeResources();
+        } else {
+            Output.warn("Warning: Outbox delivery is still in progress; the outbox is closed when it finishes.");
+        }
+    }
+
+    private void runWorker() {
+        try {
+            while (running) {
+                K2558859_OutboxMessage message;
+                try {
+                    message = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (message != null) {
+                    deliver(message);
+                }
+            }
+        } finally {
+            if (liveWorkers.decrementAndGet() == 0 && closeWhenStopped) {
+                closeResources();
+            }
+        }
+    }
+
+    // Closes the transport and the outbox once, after the last worker has stopped
+    private void closeResources() {
+        if (closed.compareAndSet(false, true)) {
+            transport.close();
+            outbox.close();
+        }
+    }
+
+    private void deliver(K2558859_OutboxMessage message) {
+        try {
+            // Make the message's enqueue record (and any queued with it) durable before it is sent
+            outbox.flush();
+            transport.send(message);
+            outbox.markDelivered(message);
+            deliveredCount.incrementAndGet();
+        } catch (Exception e) {
+            if (message.getAttempts() + 1 >= maxAttempts) {
+                message.recordAttempt();
+                outbox.markDead(message);
+                deadCount.incrementAndGet();
+                Output.error("Error: Giving up on notification to " + message.getRecipientEmail() +
+                                   " after " + message.getAttempts() + " attempts: " + e.getMessage());
+                return;
+            }
+            message.scheduleRetry(backoffMillis(message.getAttempts()));
+            retriedCount.incrementAndGet();
+            queue.add(message);
+        }
+    }
+
+    // initial * 2^attempt, capped, with up to 20% random jitter so retries do not arrive in waves
+    private long backoffMillis(int attempt) {
+        long delay = initialBackoffMillis << Math.min(attempt, 30);
+        if (delay <= 0 || delay > maxBackoffMillis) {
+            delay = maxBackoffMillis;
+        }
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    // ----- Metrics -----
+
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    public long getDeadCount() {
+        return deadCount.get();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    // Messages delivered per minute since the worker started
+    public double getDeliveredPerMinute() {
+        double minutes = (System.nanoTime() - startedAtNanos) / 60_000_000_000.0;
+        return minutes <= 0 ? 0.0 : deliveredCount.get() / minutes;
+    }
+
+    public K2558859_NotificationTransport getTransport() {
+        return transport;
+    }
+
+    public K2558859_NotificationOutbox getOutbox() {
+        return outbox;
+    }
+}
@@ -0,0 +1,80 @@
+package service.notification.outbox;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// K2558859_OutboxMessage - One outbound notification recorded in the outbox
+// The delivery worker keeps messages in a delay queue ordered by their next attempt time.
+public class K2558859_OutboxMessage implements Delayed {
+    private final long messageId;
+    private final String recipientName;
+    private final String recipientEmail;
+    private final String body;
+    private final long createdAtMillis;
+    private volatile int attempts;
+    private volatile long nextAttemptAtMillis;
+
+    // Constructor for K2558859_OutboxMessage
+    public K2558859_OutboxMessage(long messageId, String recipientName, String recipientEmail, String body,
+                                  long createdAtMillis) {
+        this.messageId = messageId;
+        this.recipientName = recipientName;
+        this.recipientEmail = recipientEmail;
+        this.body = body;
+        this.createdAtMillis = createdAtMillis;
+        this.nextAttemptAtMillis = createdAtMillis;
+    }
+
+    // Records a failed attempt and postpones the next one
+    void scheduleRetry(long delayMillis) {
+        attempts++;
+        nextAttemptAtMillis = System.currentTimeMillis() + delayMillis;
+    }
+
+    // Records the final attempt
+    void recordAttempt() {
+        attempts++;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(nextAttemptAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        if (other instanceof K2558859_OutboxMessage) {
+            return Long.compare(nextAttemptAtMillis, ((K2558859_OutboxMessage) other).nextAttemptAtMillis);
+        }
+        return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+    }
+
+    // Getters
+    public long getMessageId() {
+        return messageId;
+    }
+
+    public String getRecipientName() {
+        return recipientName;
+    }
+
+    public String getRecipientEmail() {
+        return recipientEmail;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getNextAttemptAtMillis() {
+        return nextAttemptAtMillis;
+    }
+}
@@ -0,0 +1,147 @@
+package service.notification.outbox;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// K2558859_SmtpTransport - Sends outbox messages to an SMTP server
+// Connections are pooled and reused across messages, so a steady stream of notifications
+// does not pay for a TCP and SMTP handshake per message.
+public class K2558859_SmtpTransport implements K2558859_NotificationTransport {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+    private static final int READ_TIMEOUT_MILLIS = 10_000;
+
+    private final String host;
+    private final int port;
+    private final String sender;
+    private final Queue<Connection> idleConnections = new ConcurrentLinkedQueue<>();
+
+    // Constructor for K2558859_SmtpTransport
+    public K2558859_SmtpTransport(String host, int port, String sender) {
+        this.host = host;
+        this.port = port;
+        this.sender = sender;
+    }
+
+    @Override
+    public void send(K2558859_OutboxMessage message) throws IOException {
+        Connection connection = idleConnections.poll();
+        if (connection == null) {
+            connection = new Connection();
+        }
+        try {
+            connection.sendMail(sender, message);
+        } catch (IOException e) {
+            // The session state is unknown after a failure; never reuse the connection
+            connection.close();
+            throw e;
+        }
+        idleConnections.offer(connection);
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = idleConnections.poll()) != null) {
+            connection.quit();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "SMTP " + host + ":" + port;
+    }
+
+    // One SMTP session
+    private class Connection {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final BufferedWriter writer;
+
+        private Connection() throws IOException {
+            socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+                socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                expect(220);
+                command("HELO library.local", 250);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        private void sendMail(String from, K2558859_OutboxMessage message) throws IOException {
+            command("MAIL FROM:<" + from + ">", 250);
+            command("RCPT TO:<" + message.getRecipientEmail() + ">", 250);
+            command("DATA", 354);
+            writer.write("From: Smart Library <" + from + ">\r\n");
+            writer.write("To: " + message.getRecipientName() + " <" + message.getRecipientEmail() + ">\r\n");
+            writer.write("Subject: Library notification\r\n");
+            writer.write("X-Outbox-Id: " + message.getMessageId() + "\r\n\r\n");
+            for (String line : message.getBody().split("\r?\n", -1)) {
+                // Dot-stuffing so a line holding a single '.' does not end the message early
+                if (line.startsWith(".")) {
+                    writer.write('.');
+                }
+                writer.write(line);
+                writer.write("\r\n");
+            }
+            command(".", 250);
+        }
+
+        private void command(String line, int expectedCode) throws IOException {
+            writer.write(line);
+            writer.write("\r\n");
+            writer.flush();
+            expect(expectedCode);
+        }
+
+        // Reads a (possibly multi-line) reply and checks its status code
+        private void expect(int expectedCode) throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null || line.length() < 3) {
+                    throw new IOException("SMTP server closed the connection.");
+                }
+            } while (line.length() > 3 && line.charAt(3) == '-');
+
+            int code;
+            try {
+                code = Integer.parseInt(line.substring(0, 3));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed SMTP reply: " + line);
+            }
+            if (code != expectedCode) {
+                throw new IOException("SMTP server replied: " + line);
+            }
+        }
+
+        private void quit() {
+            try {
+                command("QUIT", 221);
+            } catch (IOException e) {
+                // Closing anyway
+            }
+            close();
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package service.reminder;
+
+import model.borrow.K2558859_BorrowRecord;
+import service.notification.K2558859_NotificationService;
+import service.notification.K2558859_NotificationType;
+import util.Output;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// K2558859_DueDateReminderScheduler - Schedules due-date reminders for every open loan on a timing wheel
+// Each loan gets a reminder three days before the due date, on the due date and one day after it;
+// they are cancelled as soon as the book is returned.
+public class K2558859_DueDateReminderScheduler {
+    public static final long DEFAULT_TICK_MILLIS = 60 * 60 * 1000L; // One hour
+    public static final LocalTime DEFAULT_REMINDER_TIME = LocalTime.of(9, 0);
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    // The reminders sent for each loan
+    public enum ReminderKind {
+        DUE_SOON(-3),
+        DUE_TODAY(0),
+        OVERDUE(1);
+
+        private final int daysFromDueDate;
+
+        ReminderKind(int daysFromDueDate) {
+            this.daysFromDueDate = daysFromDueDate;
+        }
+    }
+
+    private final K2558859_TimingWheel<Reminder> wheel;
+    private final Map<K2558859_BorrowRecord, List<K2558859_TimingWheel.Timeout<Reminder>>> timeoutsByLoan;
+    private final K2558859_NotificationService notificationService;
+    private final LocalTime reminderTime;
+    private final ZoneId zone;
+    private final AtomicLong sentCount = new AtomicLong();
+    private volatile Consumer<Runnable> taskRunner = Runnable::run;
+    private ScheduledExecutorService ticker;
+
+    // Constructor with hourly ticks and reminders at 09:00 local time
+    public K2558859_DueDateReminderScheduler(K2558859_NotificationService notificationService) {
+        this(notificationService, DEFAULT_TICK_MILLIS, DEFAULT_REMINDER_TIME, ZoneId.systemDefault());
+    }
+
+    // Constructor for K2558859_DueDateReminderScheduler
+    public K2558859_DueDateReminderScheduler(K2558859_NotificationService notificationService, long tickMillis,
+                                             LocalTime reminderTime, ZoneId zone) {
+        this.notificationService = notificationService;
+        this.reminderTime = reminderTime;
+        this.zone = zone;
+        this.wheel = new K2558859_TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+        this.timeoutsByLoan = new ConcurrentHashMap<>();
+    }
+
+    // Starts a background thread that advances the wheel once per tick
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "due-date-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = wheel.getTickMillis();
+        ticker.scheduleAtFixedRate(() -> {
+            // An exception escaping the task would cancel every later tick, so it is logged and dropped here
+            try {
+                taskRunner.accept(() -> fireDue(System.currentTimeMillis()));
+            } catch (RuntimeException e) {
+                Output.error("Error: Due-date reminder tick failed: " + e.getMessage());
+            }
+        }, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    // Sets how each tick is run, e.g. under a lock shared with the threads that change the loans
+    public void setTaskRunner(Consumer<Runnable> taskRunner) {
+        this.taskRunner = taskRunner;
+    }
+
+    // Stops the background thread
+    public synchronized void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    // Registers the reminders of an open loan; reminder times already in the past are skipped
+    public void schedule(K2558859_BorrowRecord record) {
+        if (record.getReturnDate() != null) {
+            return;
+        }
+        cancel(record);
+        long now = System.currentTimeMillis();
+        List<K2558859_TimingWheel.Timeout<Reminder>> timeouts = new ArrayList<>(ReminderKind.values().length);
+        for (ReminderKind kind : ReminderKind.values()) {
+            LocalDate date = record.getDueDate().plusDays(kind.daysFromDueDate);
+            long fireAt = date.atTime(reminderTime).atZone(zone).toInstant().toEpochMilli();
+            if (fireAt > now) {
+                timeouts.add(wheel.schedule(fireAt, new Reminder(record, kind)));
+            }
+        }
+        if (!timeouts.isEmpty()) {
+            timeoutsByLoan.put(record, timeouts);
+        }
+    }
+
+    // Cancels every pending reminder of a loan
+    public void cancel(K2558859_BorrowRecord record) {
+        List<K2558859_TimingWheel.Timeout<Reminder>> timeouts = timeoutsByLoan.remove(record);
+        if (timeouts != null) {
+            for (K2558859_TimingWheel.Timeout<Reminder> timeout : timeouts) {
+                timeout.cancel();
+            }
+        }
+    }
+
+    // Advances the wheel to the given time and sends every reminder that became due
+    public int fireDue(long nowMillis) {
+        int sent = 0;
+        for (Reminder reminder : wheel.advanceTo(nowMillis)) {
+            K2558859_BorrowRecord record = reminder.record;
+            if (reminder.kind == ReminderKind.OVERDUE) {
+                timeoutsByLoan.remove(record);
+            }
+            if (record.getReturnDate() != null) {
+                continue;
+            }
+            try {
+                notificationService.notifyUser(record.getUser(), record.getBook(),
+                                               K2558859_NotificationType.DUE_DATE_REMINDER, describe(reminder));
+                sent++;
+            } catch (RuntimeException e) {
+                // The reminder has already left the wheel; keep going so one failure does not drop the rest
+                Output.error("Error: Due-date reminder for loan " + record.getRecordId() + " failed: " +
+                             e.getMessage());
+            }
+        }
+        sentCount.addAndGet(sent);
+        return sent;
+    }
+
+    private static String describe(Reminder reminder) {
+        switch (reminder.kind) {
+            case DUE_SOON:
+                return "Your borrowed book is due on " + reminder.record.getDueDate();
+            case DUE_TODAY:
+                return "Your borrowed book is due today";
+            default:
+                return "Your borrowed book is overdue since " + reminder.record.getDueDate() + ". Fines apply";
+        }
+    }
+
+    // ----- Metrics -----
+
+    public int getPendingReminderCount() {
+        return wheel.getPendingCount();
+    }
+
+    public int getScheduledLoanCount() {
+        return timeoutsByLoan.size();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    // A reminder of one kind for one loan
+    private static final class Reminder {
+        private final K2558859_BorrowRecord record;
+        private final ReminderKind kind;
+
+        private Reminder(K2558859_BorrowRecord record, ReminderKind kind) {
+            this.record = record;
+            this.kind = kind;
+        }
+    }
+}
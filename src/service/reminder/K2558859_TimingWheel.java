@@ -0,0 +1,211 @@
+package service.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// K2558859_TimingWheel - Hierarchical timing wheel for scheduling very large numbers of timeouts
+// Level 0 has one bucket per tick; every higher level has buckets as wide as a full turn of the level below.
+// Adding and cancelling a timeout is O(1); advancing the clock only touches the buckets that expire,
+// moving entries down a level as their time approaches. Timeouts fire at tick granularity, never early.
+public class K2558859_TimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTickMillis;
+    private final Bucket<T>[][] levels;
+    private final Bucket<T> overflow;
+    private long currentTime; // Start of the first tick that has not been processed yet
+    private int pendingCount;
+
+    // Constructor for K2558859_TimingWheel
+    public K2558859_TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel configuration.");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTickMillis = new long[levelCount];
+        // Java cannot create a Bucket<T>[][] directly; the array never leaves this class and only ever holds
+        // Bucket<T> instances created below, so the cast is safe
+        @SuppressWarnings("unchecked")
+        Bucket<T>[][] buckets = (Bucket<T>[][]) new Bucket<?>[levelCount][wheelSize];
+        this.levels = buckets;
+        long levelTick = tickMillis;
+        for (int level = 0; level < levelCount; level++) {
+            levelTickMillis[level] = levelTick;
+            for (int i = 0; i < wheelSize; i++) {
+                levels[level][i] = new Bucket<>();
+            }
+            levelTick = Math.multiplyExact(levelTick, wheelSize);
+        }
+        this.overflow = new Bucket<>();
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+    }
+
+    // Schedules a task to fire once the clock passes expiryMillis
+    public synchronized Timeout<T> schedule(long expiryMillis, T task) {
+        Timeout<T> timeout = new Timeout<>(this, expiryMillis, task);
+        place(timeout);
+        pendingCount++;
+        return timeout;
+    }
+
+    // Advances the clock and returns the tasks of every timeout that expired, in expiry tick order
+    public List<T> advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            if (pendingCount == 0) {
+                // Nothing scheduled - jump straight to the current tick
+                long target = nowMillis - Math.floorMod(nowMillis, tickMillis);
+                if (target > currentTime) {
+                    currentTime = target;
+                }
+                return expired;
+            }
+            while (currentTime + tickMillis <= nowMillis) {
+                Bucket<T> due = levels[0][bucketIndex(0, currentTime)];
+                for (Timeout<T> timeout = due.drain(); timeout != null; timeout = timeout.next) {
+                    expired.add(timeout.task);
+                    pendingCount--;
+                }
+                currentTime += tickMillis;
+                cascade();
+                if (pendingCount == 0) {
+                    long target = nowMillis - Math.floorMod(nowMillis, tickMillis);
+                    currentTime = Math.max(currentTime, target);
+                    break;
+                }
+            }
+        }
+        return expired;
+    }
+
+    // Moves entries from higher-level buckets whose time has come into lower levels, highest level first
+    private void cascade() {
+        int top = levels.length - 1;
+        if (currentTime % (levelTickMillis[top] * wheelSize) == 0) {
+            replaceAll(overflow.drain());
+        }
+        for (int level = top; level >= 1; level--) {
+            if (currentTime % levelTickMillis[level] == 0) {
+                replaceAll(levels[level][bucketIndex(level, currentTime)].drain());
+            }
+        }
+    }
+
+    private void replaceAll(Timeout<T> chain) {
+        while (chain != null) {
+            Timeout<T> next = chain.next;
+            chain.next = null;
+            place(chain);
+            chain = next;
+        }
+    }
+
+    // Puts a timeout into the lowest level whose range covers its expiry
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.expiryMillis - currentTime;
+        for (int level = 0; level < levels.length; level++) {
+            if (delta < levelTickMillis[level] * wheelSize) {
+                long slotTime = Math.max(timeout.expiryMillis, currentTime);
+                levels[level][bucketIndex(level, slotTime)].add(timeout);
+                return;
+            }
+        }
+        overflow.add(timeout);
+    }
+
+    private int bucketIndex(int level, long timeMillis) {
+        return (int) Math.floorMod(Math.floorDiv(timeMillis, levelTickMillis[level]), (long) wheelSize);
+    }
+
+    // Removes a timeout from its bucket
+    private synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        pendingCount--;
+        return true;
+    }
+
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    public synchronized long getCurrentTime() {
+        return currentTime;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    // K2558859_TimingWheel.Timeout - Handle for a scheduled task
+    public static final class Timeout<T> {
+        private final K2558859_TimingWheel<T> wheel;
+        private final long expiryMillis;
+        private final T task;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(K2558859_TimingWheel<T> wheel, long expiryMillis, T task) {
+            this.wheel = wheel;
+            this.expiryMillis = expiryMillis;
+            this.task = task;
+        }
+
+        // Cancels the timeout; returns false if it already fired or was cancelled
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+
+        public long getExpiryMillis() {
+            return expiryMillis;
+        }
+
+        public T getTask() {
+            return task;
+        }
+    }
+
+    // Doubly linked list of timeouts so any entry can be unlinked in constant time
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        // Detaches every entry and returns them as a chain linked through 'next'
+        private Timeout<T> drain() {
+            Timeout<T> chain = head;
+            for (Timeout<T> timeout = chain; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+                timeout.prev = null;
+            }
+            head = null;
+            return chain;
+        }
+    }
+}
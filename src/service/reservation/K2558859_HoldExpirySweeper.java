@@ -0,0 +1,151 @@
+package service.reservation;
+
+import model.reservation.K2558859_Reservation;
+import util.Output;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// K2558859_HoldExpirySweeper - Finds unclaimed holds whose pickup window has passed
+// Holds are indexed by expiry time, so a sweep only touches the holds that actually expired
+// instead of scanning every reservation. Expired holds are handed to the expiry action in one batch.
+public class K2558859_HoldExpirySweeper {
+    public static final long DEFAULT_SWEEP_INTERVAL_MILLIS = 60_000;
+
+    private final NavigableSet<Entry> expiryIndex = new ConcurrentSkipListSet<>();
+    private final Map<K2558859_Reservation, Entry> entriesByReservation = new ConcurrentHashMap<>();
+    private final Consumer<List<K2558859_Reservation>> expiryAction;
+    private final ZoneId zone;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong sweepCount = new AtomicLong();
+    private ScheduledExecutorService sweeper;
+
+    // Constructor for K2558859_HoldExpirySweeper
+    public K2558859_HoldExpirySweeper(Consumer<List<K2558859_Reservation>> expiryAction, ZoneId zone) {
+        this.expiryAction = expiryAction;
+        this.zone = zone;
+    }
+
+    // Starts sweeping in the background at the given interval
+    public synchronized void start(long intervalMillis) {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hold-expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                sweep(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                Output.error("Error: Hold expiry sweep failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stops the background sweeper
+    public synchronized void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    // Indexes a hold by its expiry time, replacing any earlier entry for the same reservation
+    public void track(K2558859_Reservation reservation) {
+        if (reservation.getHoldExpiresAt() == null) {
+            return;
+        }
+        long expiresAtMillis = reservation.getHoldExpiresAt().atZone(zone).toInstant().toEpochMilli();
+        Entry entry = new Entry(expiresAtMillis, sequence.incrementAndGet(), reservation);
+        Entry previous = entriesByReservation.put(reservation, entry);
+        if (previous != null) {
+            expiryIndex.remove(previous);
+        }
+        expiryIndex.add(entry);
+    }
+
+    // Removes a hold that was collected or cancelled
+    public void untrack(K2558859_Reservation reservation) {
+        Entry entry = entriesByReservation.remove(reservation);
+        if (entry != null) {
+            expiryIndex.remove(entry);
+        }
+    }
+
+    // Expires every hold whose window ended at or before the given time; returns how many were expired
+    public int sweep(long nowMillis) {
+        sweepCount.incrementAndGet();
+        List<K2558859_Reservation> expired = new ArrayList<>();
+        Entry first;
+        while ((first = expiryIndex.pollFirst()) != null) {
+            if (first.expiresAtMillis > nowMillis) {
+                // Not due yet - put it back and stop; everything after it expires later
+                expiryIndex.add(first);
+                break;
+            }
+            if (entriesByReservation.remove(first.reservation, first)) {
+                expired.add(first.reservation);
+            }
+        }
+        if (!expired.isEmpty()) {
+            try {
+                expiryAction.accept(expired);
+            } catch (RuntimeException e) {
+                // Index the batch again so the holds are retried on the next sweep instead of staying held
+                // forever; holds the action did expire are skipped then, as they are no longer held
+                for (K2558859_Reservation reservation : expired) {
+                    track(reservation);
+                }
+                throw e;
+            }
+            expiredCount.addAndGet(expired.size());
+        }
+        return expired.size();
+    }
+
+    // ----- Metrics -----
+
+    public int getTrackedHoldCount() {
+        return entriesByReservation.size();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    public long getSweepCount() {
+        return sweepCount.get();
+    }
+
+    // Index entry ordered by expiry time, then by insertion
+    private static final class Entry implements Comparable<Entry> {
+        private final long expiresAtMillis;
+        private final long sequence;
+        private final K2558859_Reservation reservation;
+
+        private Entry(long expiresAtMillis, long sequence, K2558859_Reservation reservation) {
+            this.expiresAtMillis = expiresAtMillis;
+            this.sequence = sequence;
+            this.reservation = reservation;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byExpiry = Long.compare(expiresAtMillis, other.expiresAtMillis);
+            return byExpiry != 0 ? byExpiry : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package util;
+
+import java.io.BufferedOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// AsyncOutputSink - Hands messages to a background writer that prints them in buffered batches
+// Callers only enqueue, so the console lock and the write system calls are off their path. The queue is
+// bounded; when it is full callers wait for the writer instead of losing messages.
+public class AsyncOutputSink implements OutputSink {
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH_SIZE = 512;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final BlockingQueue<String> queue;
+    private final PrintStream target;
+    private final Level minimumLevel;
+    private final Thread writer;
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private volatile boolean running = true;
+
+    // Constructor that writes to System.out as it is now
+    public AsyncOutputSink(Level minimumLevel) {
+        this(System.out, minimumLevel, DEFAULT_CAPACITY);
+    }
+
+    // Constructor for AsyncOutputSink
+    public AsyncOutputSink(PrintStream out, Level minimumLevel, int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.target = new PrintStream(new BufferedOutputStream(out, BUFFER_BYTES), false);
+        this.minimumLevel = minimumLevel;
+        this.writer = new Thread(this::runWriter, "output-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void emit(Level level, String message) {
+        if (!isEnabled(level) || !running) {
+            return;
+        }
+        submittedCount.incrementAndGet();
+        try {
+            queue.put(message);
+        } catch (InterruptedException e) {
+            submittedCount.decrementAndGet();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.compareTo(minimumLevel) >= 0;
+    }
+
+    @Override
+    public void flush() {
+        long goal = submittedCount.get();
+        while (writtenCount.get() < goal && writer.isAlive()) {
+            LockSupport.parkNanos(100_000L);
+        }
+    }
+
+    // Stops accepting messages, writes the ones already queued and stops the writer
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writer loop - drains the queue in batches and writes each batch with one flush
+    private void runWriter() {
+        List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        try {
+            while (running || !queue.isEmpty()) {
+                String first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                for (String message : batch) {
+                    target.println(message);
+                }
+                target.flush();
+                writtenCount.addAndGet(batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            target.flush();
+        }
+    }
+
+    // ----- Metrics -----
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+}
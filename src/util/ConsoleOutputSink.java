@@ -0,0 +1,29 @@
+package util;
+
+// ConsoleOutputSink - Writes messages straight to System.out on the calling thread
+// System.out is looked up on every message, so redirecting it with System.setOut is honoured.
+public class ConsoleOutputSink implements OutputSink {
+    private final Level minimumLevel;
+
+    // Constructor for ConsoleOutputSink
+    public ConsoleOutputSink(Level minimumLevel) {
+        this.minimumLevel = minimumLevel;
+    }
+
+    @Override
+    public void emit(Level level, String message) {
+        if (isEnabled(level)) {
+            System.out.println(message);
+        }
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.compareTo(minimumLevel) >= 0;
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+}
@@ -0,0 +1,13 @@
+package util;
+
+// IdGenerator - Source of unique, increasing IDs for records, reservations and reports
+public interface IdGenerator {
+
+    // Returns the next ID; every call returns a value larger than the previous one
+    long nextId();
+
+    // Returns the next ID as a compact string with the given prefix, e.g. "BR-1B3K9XQ0S0W"
+    default String nextId(String prefix) {
+        return prefix + "-" + Long.toString(nextId(), Character.MAX_RADIX).toUpperCase();
+    }
+}
@@ -0,0 +1,18 @@
+package util;
+
+// NoOpOutputSink - Discards every message; for benchmarks and jobs that only need the final results
+public final class NoOpOutputSink implements OutputSink {
+    public static final NoOpOutputSink INSTANCE = new NoOpOutputSink();
+
+    private NoOpOutputSink() {
+    }
+
+    @Override
+    public void emit(Level level, String message) {
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return false;
+    }
+}
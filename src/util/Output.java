@@ -0,0 +1,43 @@
+package util;
+
+// Output - Process-wide access point for the current OutputSink
+// Defaults to a synchronous console sink, so interactive output keeps its order relative to prompts.
+public final class Output {
+    private static volatile OutputSink sink = new ConsoleOutputSink(OutputSink.Level.INFO);
+
+    // Private constructor to prevent instantiation
+    private Output() {
+        throw new UnsupportedOperationException("Output is a utility class and cannot be instantiated");
+    }
+
+    // Replaces the sink and returns the previous one; the caller decides whether to close it
+    public static OutputSink setSink(OutputSink newSink) {
+        OutputSink previous = sink;
+        sink = newSink != null ? newSink : NoOpOutputSink.INSTANCE;
+        return previous;
+    }
+
+    public static OutputSink getSink() {
+        return sink;
+    }
+
+    public static boolean isEnabled(OutputSink.Level level) {
+        return sink.isEnabled(level);
+    }
+
+    public static void debug(String message) {
+        sink.emit(OutputSink.Level.DEBUG, message);
+    }
+
+    public static void info(String message) {
+        sink.emit(OutputSink.Level.INFO, message);
+    }
+
+    public static void warn(String message) {
+        sink.emit(OutputSink.Level.WARN, message);
+    }
+
+    public static void error(String message) {
+        sink.emit(OutputSink.Level.ERROR, message);
+    }
+}
@@ -0,0 +1,29 @@
+package util;
+
+// OutputSink - Destination for the messages the domain reports (confirmations, warnings, errors)
+// Domain code writes through Output instead of System.out, so bulk jobs and benchmarks can buffer the
+// messages on a background thread or drop them entirely instead of paying for console I/O.
+public interface OutputSink {
+
+    // Severity of a message; a sink ignores messages below its minimum level
+    enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    // Writes one message
+    void emit(Level level, String message);
+
+    // Checks whether messages of this level are written at all, so callers can skip building them
+    default boolean isEnabled(Level level) {
+        return true;
+    }
+
+    // Blocks until every message emitted so far has been written
+    default void flush() {
+    }
+
+    // Writes any remaining messages and releases the sink's resources
+    default void close() {
+        flush();
+    }
+}
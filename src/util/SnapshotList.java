@@ -0,0 +1,74 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// SnapshotList - Mutable list that hands readers an immutable snapshot shared until the next mutation
+// Readers calling snapshot() repeatedly get the same instance, so read-heavy screens allocate nothing;
+// the copy is made lazily on the first read after a change.
+public class SnapshotList<T> {
+    private final List<T> items;
+    private final List<T> liveView;
+    private volatile List<T> snapshot;
+    private volatile long version;
+
+    // Constructor for SnapshotList
+    public SnapshotList() {
+        this.items = new ArrayList<>();
+        this.liveView = Collections.unmodifiableList(items);
+        this.snapshot = Collections.emptyList();
+    }
+
+    // Appends an item and invalidates the current snapshot
+    public synchronized void add(T item) {
+        items.add(item);
+        changed();
+    }
+
+    // Removes an item and invalidates the current snapshot if it was present
+    public synchronized boolean remove(T item) {
+        boolean removed = items.remove(item);
+        if (removed) {
+            changed();
+        }
+        return removed;
+    }
+
+    // Returns an immutable point-in-time copy, shared by all readers until the list changes
+    public List<T> snapshot() {
+        List<T> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(items));
+            }
+            return snapshot;
+        }
+    }
+
+    // Returns a read-only view of the live list for the owning (writer) thread; never hand this to other threads
+    public List<T> liveView() {
+        return liveView;
+    }
+
+    // Gets the number of mutations applied so far
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return items.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    private void changed() {
+        version++;
+        snapshot = null;
+    }
+}
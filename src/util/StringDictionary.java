@@ -0,0 +1,67 @@
+package util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// StringDictionary - Thread-safe pool that keeps one canonical instance of every distinct string
+// Values that repeat across many records (authors, categories, tags, editions) are stored once however
+// often they are used. Each value also gets a small dense int code, so a record can hold the code
+// instead of a reference and group or compare values without touching the strings.
+public class StringDictionary {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[INITIAL_CAPACITY];
+    private volatile int size;
+
+    // Returns the canonical instance equal to the value, adding the value if it is new
+    public String intern(String value) {
+        return value == null ? null : decode(encode(value));
+    }
+
+    // Returns the code of the value, adding the value if it is new; codes start at 0 and never change
+    public int encode(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot encode a null value");
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int next = size;
+            String[] table = values;
+            if (next == table.length) {
+                table = Arrays.copyOf(table, table.length * 2);
+            }
+            table[next] = value;
+            values = table;
+            size = next + 1;
+            // Published last, so a reader that finds the code also sees the value in the table
+            codes.put(value, next);
+            return next;
+        }
+    }
+
+    // Returns the value for a code handed out by encode
+    public String decode(int code) {
+        if (code < 0 || code >= size) {
+            throw new IllegalArgumentException("Unknown dictionary code: " + code);
+        }
+        return values[code];
+    }
+
+    // Checks whether an equal value has been added
+    public boolean contains(String value) {
+        return value != null && codes.containsKey(value);
+    }
+
+    // Gets the number of distinct values in the dictionary
+    public int size() {
+        return size;
+    }
+}
@@ -1,6 +1,7 @@
 package util;
 
 import exception.ValidationException;
+import java.util.regex.Pattern;
 
 // ValidationUtil - Utility class for validating user input data
 public class ValidationUtil {
@@ -8,6 +9,7 @@ public class ValidationUtil {
     // Regular expression patterns for validation
     private static final String EMAIL_PATTERN = "^[\\w.%+-]+@[\\w.-]+\\.[a-zA-Z]{2,6}$";
     private static final String CONTACT_NUMBER_PATTERN = "^\\d{10}$";
+    private static final Pattern CLASS_PREFIX_PATTERN = Pattern.compile("^K\\d+_");
     
     // Private constructor to prevent instantiation
     private ValidationUtil() {
@@ -84,6 +86,6 @@ public class ValidationUtil {
             return className;
         }
         // Remove prefix pattern like "K2558859_"
-        return className.replaceFirst("^K\\d+_", "");
+        return CLASS_PREFIX_PATTERN.matcher(className).replaceFirst("");
     }
 }